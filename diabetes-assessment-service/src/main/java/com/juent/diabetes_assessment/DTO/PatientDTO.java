@@ -11,6 +11,7 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @Generated
 public class PatientDTO {
+    private String id;
     private String firstName;
     private String lastName;
     private String birthDate;
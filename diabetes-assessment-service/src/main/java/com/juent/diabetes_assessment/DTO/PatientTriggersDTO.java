@@ -0,0 +1,13 @@
+package com.juent.diabetes_assessment.DTO;
+
+import lombok.*;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Generated
+public class PatientTriggersDTO {
+    private String patId;
+    private String dictionaryVersion;
+    private long triggerMask;
+}
@@ -0,0 +1,73 @@
+package com.juent.diabetes_assessment.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.juent.diabetes_assessment.DTO.AssessmentResponseDTO;
+import com.juent.diabetes_assessment.event.PatientDataChangedEvent;
+import com.juent.diabetes_assessment.event.TriggerDictionaryChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Size- and TTL-bounded cache of assessments keyed by patient id, evicted when the patient or its notes change
+ * and cleared when the trigger dictionary changes.
+ * Concurrent misses on the same patient share a single computation.
+ */
+@Component
+public class AssessmentCache {
+    private static final Logger logger = LoggerFactory.getLogger(AssessmentCache.class);
+
+    private final AsyncCache<String, AssessmentResponseDTO> cache;
+
+    public AssessmentCache(@Value("${assessment.cache.max-size}") long maxSize,
+                           @Value("${assessment.cache.ttl}") Duration ttl,
+                           MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "assessments");
+    }
+
+    public Mono<AssessmentResponseDTO> get(String patientId, Function<String, Mono<AssessmentResponseDTO>> assessment) {
+        return Mono.fromFuture(() -> cache.get(patientId, (id, executor) -> assessment.apply(id).toFuture()), true);
+    }
+
+    /**
+     * Cached or in-flight assessments of the patients, the others being computed together by one call to
+     * {@code assessments}. Their entries are reserved before the call, so an eviction while it runs drops its result
+     * instead of letting it overwrite newer data. The missing patients are passed in the order of {@code patientIds};
+     * those absent from the computed map are left out.
+     */
+    public Mono<Map<String, AssessmentResponseDTO>> getAll(Collection<String> patientIds,
+                                                           Function<List<String>, Mono<Map<String, AssessmentResponseDTO>>> assessments) {
+        return Mono.fromFuture(() -> cache.getAll(patientIds, (missingIds, executor) -> assessments
+                .apply(patientIds.stream().filter(missingIds::contains).toList())
+                .toFuture()), true);
+    }
+
+    @EventListener
+    public void onPatientDataChanged(PatientDataChangedEvent event) {
+        logger.info("evicting assessment of patient {}", event.patientId());
+        cache.synchronous().invalidate(event.patientId());
+    }
+
+    @EventListener
+    public void onTriggerDictionaryChanged(TriggerDictionaryChangedEvent event) {
+        logger.info("evicting all assessments, trigger dictionary is now {}", event.version());
+        cache.synchronous().invalidateAll();
+    }
+}
@@ -0,0 +1,31 @@
+package com.juent.diabetes_assessment.configuration;
+
+import com.juent.diabetes_assessment.resilience.DownstreamResilience;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.RetryRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class ResilienceConfig {
+
+    @Bean
+    public DownstreamResilience noteServiceResilience(@Value("${note.service.timeout}") Duration timeout,
+                                                      BulkheadRegistry bulkheadRegistry,
+                                                      CircuitBreakerRegistry circuitBreakerRegistry,
+                                                      RetryRegistry retryRegistry) {
+        return DownstreamResilience.of("noteService", timeout, bulkheadRegistry, circuitBreakerRegistry, retryRegistry);
+    }
+
+    @Bean
+    public DownstreamResilience patientServiceResilience(@Value("${patient.service.timeout}") Duration timeout,
+                                                         BulkheadRegistry bulkheadRegistry,
+                                                         CircuitBreakerRegistry circuitBreakerRegistry,
+                                                         RetryRegistry retryRegistry) {
+        return DownstreamResilience.of("patientService", timeout, bulkheadRegistry, circuitBreakerRegistry, retryRegistry);
+    }
+}
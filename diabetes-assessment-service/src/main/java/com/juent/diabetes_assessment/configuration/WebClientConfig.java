@@ -1,19 +1,86 @@
 package com.juent.diabetes_assessment.configuration;
 
+import io.netty.channel.ChannelOption;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
+import java.time.Duration;
+
+/**
+ * One connection pool shared by the patient-service and note-service clients, sized per remote host.
+ * Pool metrics are published as {@code reactor.netty.connection.provider.*}.
+ * With {@code downstream.binary-codec}, responses are asked for in Smile (binary JSON), falling back to JSON
+ * for endpoints that only produce JSON; WebFlux decodes Smile out of the box.
+ */
 @Configuration
 public class WebClientConfig {
 
+    public static final String APPLICATION_SMILE = "application/x-jackson-smile";
+
     @Value("${internal.auth.token}")
     private String internalAuthToken;
 
+    @Value("${downstream.max-in-memory-size}")
+    private DataSize maxInMemorySize;
+
+    @Value("${downstream.binary-codec}")
+    private boolean binaryCodec;
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider downstreamConnectionProvider(
+            @Value("${downstream.pool.max-connections}") int maxConnections,
+            @Value("${downstream.pool.pending-acquire-max-count}") int pendingAcquireMaxCount,
+            @Value("${downstream.pool.pending-acquire-timeout}") Duration pendingAcquireTimeout,
+            @Value("${downstream.pool.max-idle-time}") Duration maxIdleTime,
+            @Value("${downstream.pool.max-life-time}") Duration maxLifeTime,
+            @Value("${downstream.pool.evict-in-background}") Duration evictInBackground) {
+        return ConnectionProvider.builder("downstream")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .maxLifeTime(maxLifeTime)
+                .evictInBackground(evictInBackground)
+                .metrics(true)
+                .build();
+    }
+
+    /**
+     * With {@code http2}, connections are upgraded to cleartext HTTP/2 when the service accepts it and stay on
+     * HTTP/1.1 otherwise.
+     */
+    @Bean
+    public HttpClient downstreamHttpClient(ConnectionProvider downstreamConnectionProvider,
+                                           @Value("${downstream.connect-timeout}") Duration connectTimeout,
+                                           @Value("${downstream.compression}") boolean compression,
+                                           @Value("${downstream.http2}") boolean http2) {
+        return HttpClient.create(downstreamConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, Math.toIntExact(connectTimeout.toMillis()))
+                .keepAlive(true)
+                .compress(compression)
+                .protocol(http2
+                        ? new HttpProtocol[]{HttpProtocol.H2C, HttpProtocol.HTTP11}
+                        : new HttpProtocol[]{HttpProtocol.HTTP11});
+    }
+
     @Bean
-    public WebClient.Builder webClientBuilder() {
-        return WebClient.builder()
+    public WebClient.Builder webClientBuilder(HttpClient downstreamHttpClient) {
+        WebClient.Builder builder = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(downstreamHttpClient))
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(Math.toIntExact(maxInMemorySize.toBytes())))
                 .defaultHeader("X-Internal-Auth", internalAuthToken);
+        if (binaryCodec) {
+            builder.defaultHeader(HttpHeaders.ACCEPT, APPLICATION_SMILE, MediaType.APPLICATION_JSON_VALUE + ";q=0.9");
+        }
+        return builder;
     }
 }
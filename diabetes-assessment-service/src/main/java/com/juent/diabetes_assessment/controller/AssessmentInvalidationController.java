@@ -0,0 +1,23 @@
+package com.juent.diabetes_assessment.controller;
+
+import com.juent.diabetes_assessment.event.PatientDataChangedEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/internal/assess")
+public class AssessmentInvalidationController {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public AssessmentInvalidationController(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostMapping("/invalidate/{patientId}")
+    public ResponseEntity<Void> invalidate(@PathVariable String patientId) {
+        eventPublisher.publishEvent(new PatientDataChangedEvent(patientId));
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -2,21 +2,44 @@ package com.juent.diabetes_assessment.controller;
 
 import com.juent.diabetes_assessment.DTO.AssessmentResponseDTO;
 import com.juent.diabetes_assessment.services.DiabetesAssessmentService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/assess")
 public class DiabetesAssessmentController {
 
     private final DiabetesAssessmentService diabetesAssessmentService;
+    private final int maxBatchSize;
 
-    public DiabetesAssessmentController(DiabetesAssessmentService diabetesAssessmentService) {
+    public DiabetesAssessmentController(DiabetesAssessmentService diabetesAssessmentService,
+                                        @Value("${assessment.batch.max-size}") int maxBatchSize) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("assessment.batch.max-size must be positive");
+        }
         this.diabetesAssessmentService = diabetesAssessmentService;
+        this.maxBatchSize = maxBatchSize;
     }
 
     @GetMapping("/{patientId}")
-    public ResponseEntity<AssessmentResponseDTO> assessPatient(@PathVariable String patientId) {
-        return ResponseEntity.ok(diabetesAssessmentService.assessPatient(patientId));
+    public Mono<ResponseEntity<AssessmentResponseDTO>> assessPatient(@PathVariable String patientId) {
+        return diabetesAssessmentService.assessPatient(patientId).map(ResponseEntity::ok);
+    }
+
+    /**
+     * Patient ids are sent on to patient-service and note-service in one batch each, whose own caps are at least
+     * {@code assessment.batch.max-size}.
+     */
+    @PostMapping("/batch")
+    public Flux<AssessmentResponseDTO> assessPatients(@RequestBody List<String> patientIds) {
+        if (patientIds.size() > maxBatchSize) {
+            throw new IllegalArgumentException("At most " + maxBatchSize + " patient ids per batch, got " + patientIds.size());
+        }
+        return diabetesAssessmentService.assessPatients(patientIds);
     }
 }
@@ -0,0 +1,18 @@
+package com.juent.diabetes_assessment.enums;
+
+public enum RiskLevelEnum {
+    NONE("None"),
+    BORDERLINE("Borderline"),
+    IN_DANGER("In Danger"),
+    EARLY_ONSET("Early onset");
+
+    private final String label;
+
+    RiskLevelEnum(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
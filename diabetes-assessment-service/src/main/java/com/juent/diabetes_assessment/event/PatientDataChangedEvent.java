@@ -0,0 +1,4 @@
+package com.juent.diabetes_assessment.event;
+
+public record PatientDataChangedEvent(String patientId) {
+}
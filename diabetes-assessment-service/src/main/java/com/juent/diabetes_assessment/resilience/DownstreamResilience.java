@@ -0,0 +1,84 @@
+package com.juent.diabetes_assessment.resilience;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.github.resilience4j.reactor.retry.RetryOperator;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bulkhead, circuit breaker and retry of one downstream service, configured under its name in the
+ * {@code resilience4j.*} properties. Each attempt of a single reply is bounded by {@code timeout}, so a slow reply
+ * counts as a failure; a streamed reply gets {@code timeout} for its first element and between two elements.
+ */
+public final class DownstreamResilience {
+
+    private final Bulkhead bulkhead;
+    private final CircuitBreaker circuitBreaker;
+    private final Retry retry;
+    private final Duration timeout;
+
+    private DownstreamResilience(Bulkhead bulkhead, CircuitBreaker circuitBreaker, Retry retry, Duration timeout) {
+        this.bulkhead = bulkhead;
+        this.circuitBreaker = circuitBreaker;
+        this.retry = retry;
+        this.timeout = timeout;
+    }
+
+    public static DownstreamResilience of(String name, Duration timeout, BulkheadRegistry bulkheadRegistry,
+                                          CircuitBreakerRegistry circuitBreakerRegistry, RetryRegistry retryRegistry) {
+        return new DownstreamResilience(bulkheadRegistry.bulkhead(name), circuitBreakerRegistry.circuitBreaker(name),
+                retryRegistry.retry(name), timeout);
+    }
+
+    /**
+     * For idempotent calls: retried with backoff on transient failures.
+     */
+    public <T> Mono<T> retrying(Mono<T> call) {
+        return once(call).transformDeferred(RetryOperator.of(retry));
+    }
+
+    /**
+     * For idempotent streamed calls: elements are passed on as they arrive, so the call is only retried while none
+     * has been emitted yet; a failure after the first element is never retried, which would repeat elements.
+     */
+    public <T> Flux<T> retryingAll(Flux<T> call) {
+        return Flux.defer(() -> {
+            AtomicBoolean started = new AtomicBoolean();
+            return call
+                    .timeout(timeout)
+                    .transformDeferred(BulkheadOperator.of(bulkhead))
+                    .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                    .doOnNext(element -> started.set(true))
+                    .onErrorMap(failure -> started.get(), StartedStreamFailure::new)
+                    .transformDeferred(RetryOperator.of(retry))
+                    .onErrorMap(StartedStreamFailure.class, Throwable::getCause);
+        });
+    }
+
+    public <T> Mono<T> once(Mono<T> call) {
+        return call
+                .timeout(timeout)
+                .transformDeferred(BulkheadOperator.of(bulkhead))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker));
+    }
+
+    /**
+     * Carries a failure past the retry, which does not know it, and is unwrapped right after it.
+     */
+    private static final class StartedStreamFailure extends RuntimeException {
+
+        private StartedStreamFailure(Throwable cause) {
+            super(cause.getMessage(), cause, false, false);
+        }
+    }
+}
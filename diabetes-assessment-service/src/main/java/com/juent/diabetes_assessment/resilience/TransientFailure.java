@@ -0,0 +1,21 @@
+package com.juent.diabetes_assessment.resilience;
+
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+
+/**
+ * Failures worth retrying and counting against a circuit breaker: timeouts, connection errors and 5xx answers.
+ * A 4xx answer is a valid reply from a healthy service.
+ */
+public class TransientFailure implements Predicate<Throwable> {
+
+    @Override
+    public boolean test(Throwable failure) {
+        return failure instanceof TimeoutException
+                || failure instanceof WebClientRequestException
+                || failure instanceof WebClientResponseException response && response.getStatusCode().is5xxServerError();
+    }
+}
@@ -0,0 +1,50 @@
+package com.juent.diabetes_assessment.risk;
+
+import com.juent.diabetes_assessment.enums.GenderEnum;
+import com.juent.diabetes_assessment.enums.RiskLevelEnum;
+
+import java.util.Set;
+
+/**
+ * Assigns {@code risk} to patients whose age, gender and trigger count fall within the rule.
+ * An empty gender set matches every patient, including those whose gender is unknown.
+ */
+public record RiskRule(Range age, Set<GenderEnum> genders, Range triggers, RiskLevelEnum risk) {
+
+    public boolean matches(int patientAge, GenderEnum gender, int triggerCount) {
+        return age.contains(patientAge)
+                && (genders.isEmpty() || gender != null && genders.contains(gender))
+                && triggers.contains(triggerCount);
+    }
+
+    public record Range(int min, int max) {
+
+        public static Range any() {
+            return new Range(Integer.MIN_VALUE, Integer.MAX_VALUE);
+        }
+
+        public static Range exactly(int value) {
+            return new Range(value, value);
+        }
+
+        public static Range between(int min, int max) {
+            return new Range(min, max);
+        }
+
+        public static Range atLeast(int min) {
+            return new Range(min, Integer.MAX_VALUE);
+        }
+
+        public static Range below(int bound) {
+            return new Range(Integer.MIN_VALUE, bound - 1);
+        }
+
+        public static Range above(int bound) {
+            return new Range(bound + 1, Integer.MAX_VALUE);
+        }
+
+        public boolean contains(int value) {
+            return value >= min && value <= max;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.juent.diabetes_assessment.risk;
+
+import com.juent.diabetes_assessment.enums.RiskLevelEnum;
+
+import java.util.List;
+import java.util.Set;
+
+import static com.juent.diabetes_assessment.enums.GenderEnum.FEMALE;
+import static com.juent.diabetes_assessment.enums.GenderEnum.MALE;
+import static com.juent.diabetes_assessment.enums.RiskLevelEnum.*;
+import static com.juent.diabetes_assessment.risk.RiskRule.Range.*;
+
+/**
+ * Diabetes risk rules, the first matching rule wins. A patient aged exactly 30 is neither under nor over 30:
+ * only the rules of patients aged 30 or more and the default apply.
+ */
+public final class RiskRules {
+    public static final RiskLevelEnum DEFAULT = NONE;
+
+    public static final List<RiskRule> DIABETES = List.of(
+            new RiskRule(any(), Set.of(), exactly(0), NONE),
+            new RiskRule(above(30), Set.of(), between(2, 5), BORDERLINE),
+            new RiskRule(below(30), Set.of(MALE), between(3, 4), IN_DANGER),
+            new RiskRule(below(30), Set.of(FEMALE), between(4, 6), IN_DANGER),
+            new RiskRule(atLeast(30), Set.of(), between(6, 7), IN_DANGER),
+            new RiskRule(below(30), Set.of(MALE), atLeast(5), EARLY_ONSET),
+            new RiskRule(below(30), Set.of(FEMALE), atLeast(7), EARLY_ONSET),
+            new RiskRule(atLeast(30), Set.of(), atLeast(8), EARLY_ONSET)
+    );
+
+    private RiskRules() {
+    }
+}
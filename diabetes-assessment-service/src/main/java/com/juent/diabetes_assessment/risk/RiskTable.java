@@ -0,0 +1,79 @@
+package com.juent.diabetes_assessment.risk;
+
+import com.juent.diabetes_assessment.enums.GenderEnum;
+import com.juent.diabetes_assessment.enums.RiskLevelEnum;
+
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Risk rules compiled into a dense table indexed by (age bucket, gender, trigger count).
+ * Age buckets are delimited by the age bounds of the rules and trigger counts beyond the last bound of the rules
+ * share the same entry. Ages between the first and last bound map to their bucket through a precomputed array,
+ * so a lookup is two array reads whatever the number of rules.
+ */
+public final class RiskTable {
+    private static final int UNKNOWN_GENDER = GenderEnum.values().length;
+    private static final int GENDERS = UNKNOWN_GENDER + 1;
+
+    private final int ageOrigin;
+    private final int[] ageOffsets;
+    private final int triggerLimit;
+    private final RiskLevelEnum[] risks;
+
+    private RiskTable(int[] ageBounds, int triggerLimit, RiskLevelEnum[] risks) {
+        int rowSize = GENDERS * (triggerLimit + 1);
+        this.ageOrigin = ageBounds.length == 0 ? 0 : ageBounds[0] - 1;
+        this.ageOffsets = new int[ageBounds.length == 0 ? 1 : ageBounds[ageBounds.length - 1] - ageOrigin + 1];
+        for (int i = 0, bucket = 0; i < ageOffsets.length; i++) {
+            while (bucket < ageBounds.length && ageOrigin + i >= ageBounds[bucket]) {
+                bucket++;
+            }
+            ageOffsets[i] = bucket * rowSize;
+        }
+        this.triggerLimit = triggerLimit;
+        this.risks = risks;
+    }
+
+    public static RiskTable compile(List<RiskRule> rules, RiskLevelEnum fallback) {
+        TreeSet<Integer> ageBoundSet = new TreeSet<>();
+        int triggerLimit = 0;
+        for (RiskRule rule : rules) {
+            if (rule.age().min() != Integer.MIN_VALUE) ageBoundSet.add(rule.age().min());
+            if (rule.age().max() != Integer.MAX_VALUE) ageBoundSet.add(rule.age().max() + 1);
+            if (rule.triggers().min() != Integer.MIN_VALUE) triggerLimit = Math.max(triggerLimit, rule.triggers().min());
+            if (rule.triggers().max() != Integer.MAX_VALUE) triggerLimit = Math.max(triggerLimit, rule.triggers().max() + 1);
+        }
+        int[] ageBounds = ageBoundSet.stream().mapToInt(Integer::intValue).toArray();
+
+        int ageBuckets = ageBounds.length + 1;
+        RiskLevelEnum[] risks = new RiskLevelEnum[ageBuckets * GENDERS * (triggerLimit + 1)];
+        for (int bucket = 0; bucket < ageBuckets; bucket++) {
+            int age = bucket == 0 ? Integer.MIN_VALUE : ageBounds[bucket - 1];
+            for (int genderIndex = 0; genderIndex < GENDERS; genderIndex++) {
+                GenderEnum gender = genderIndex == UNKNOWN_GENDER ? null : GenderEnum.values()[genderIndex];
+                for (int triggerCount = 0; triggerCount <= triggerLimit; triggerCount++) {
+                    risks[(bucket * GENDERS + genderIndex) * (triggerLimit + 1) + triggerCount] =
+                            evaluate(rules, fallback, age, gender, triggerCount);
+                }
+            }
+        }
+        return new RiskTable(ageBounds, triggerLimit, risks);
+    }
+
+    public RiskLevelEnum lookup(int patientAge, GenderEnum gender, int triggerCount) {
+        int ageOffset = ageOffsets[Math.clamp((long) patientAge - ageOrigin, 0, ageOffsets.length - 1)];
+        int genderIndex = gender == null ? UNKNOWN_GENDER : gender.ordinal();
+        return risks[ageOffset + genderIndex * (triggerLimit + 1) + Math.min(triggerCount, triggerLimit)];
+    }
+
+    private static RiskLevelEnum evaluate(List<RiskRule> rules, RiskLevelEnum fallback,
+                                          int patientAge, GenderEnum gender, int triggerCount) {
+        for (RiskRule rule : rules) {
+            if (rule.matches(patientAge, gender, triggerCount)) {
+                return rule.risk();
+            }
+        }
+        return fallback;
+    }
+}
@@ -1,121 +1,168 @@
 package com.juent.diabetes_assessment.services;
 
 import com.juent.diabetes_assessment.DTO.AssessmentResponseDTO;
+import com.juent.diabetes_assessment.cache.AssessmentCache;
 import com.juent.diabetes_assessment.DTO.NoteDTO;
 import com.juent.diabetes_assessment.DTO.PatientDTO;
-import com.juent.diabetes_assessment.enums.GenderEnum;
+import com.juent.diabetes_assessment.enums.RiskLevelEnum;
+import com.juent.diabetes_assessment.risk.RiskRules;
+import com.juent.diabetes_assessment.risk.RiskTable;
+import com.juent.diabetes_assessment.trigger.TextNormalizer;
+import com.juent.diabetes_assessment.trigger.TriggerDictionary;
+import com.juent.diabetes_assessment.trigger.TriggerDictionaryProvider;
+import com.juent.diabetes_assessment.trigger.TriggerMatcher;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-import java.text.Normalizer;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @Service
 public class DiabetesAssessmentService {
-    private static final List<String> TRIGGERS_LIST = List.of(
-            "hemoglobine a1c",
-            "microalbumine",
-            "taille",
-            "poids",
-            "fume",
-            "anormal",
-            "cholestérol",
-            "vertige",
-            "rechute",
-            "reaction",
-            "anticorps"
-    );
+    private static final RiskTable RISK_TABLE = RiskTable.compile(RiskRules.DIABETES, RiskRules.DEFAULT);
 
     private final NoteServiceClient noteServiceClient;
     private final PatientServiceClient patientServiceClient;
+    private final AssessmentCache assessmentCache;
+    private final TriggerDictionaryProvider triggerDictionaryProvider;
 
-    public DiabetesAssessmentService(NoteServiceClient noteServiceClient, PatientServiceClient patientServiceClient) {
+    public DiabetesAssessmentService(NoteServiceClient noteServiceClient, PatientServiceClient patientServiceClient,
+                                     AssessmentCache assessmentCache, TriggerDictionaryProvider triggerDictionaryProvider) {
         this.noteServiceClient = noteServiceClient;
         this.patientServiceClient = patientServiceClient;
+        this.assessmentCache = assessmentCache;
+        this.triggerDictionaryProvider = triggerDictionaryProvider;
     }
 
-    public AssessmentResponseDTO assessPatient(String patientId) {
-        PatientDTO patientInfo = patientServiceClient.getPatientInfo(patientId);
-        List<NoteDTO> patientNotesList = noteServiceClient.getNotesForPatient(patientId);
+    public Mono<AssessmentResponseDTO> assessPatient(String patientId) {
+        return assessmentCache.get(patientId, this::fetchAndAssess);
+    }
 
-        String cleanedNotes = patientNotesList.stream()
-                .map(NoteDTO::getNote)
-                .map(this::normalizeText)
-                .collect(Collectors.joining(" "));
+    private Mono<AssessmentResponseDTO> fetchAndAssess(String patientId) {
+        return Mono.zip(
+                        patientServiceClient.getPatientInfo(patientId),
+                        countTrigger(patientId))
+                .map(patientAndTriggers -> buildAssessment(patientId, patientAndTriggers.getT1(), patientAndTriggers.getT2()));
+    }
 
-        int triggerCount = countTrigger(cleanedNotes);
+    /**
+     * Assesses every patient with one bulk call to each service for the patients missing from the cache.
+     * Unknown patient ids are left out of the result, which keeps the order of the request.
+     */
+    public Flux<AssessmentResponseDTO> assessPatients(List<String> patientIds) {
+        return Flux.defer(() -> {
+            List<String> distinctIds = List.copyOf(new LinkedHashSet<>(patientIds));
+            return assessmentCache.getAll(distinctIds, this::fetchAndAssessAll)
+                    .flatMapIterable(assessments -> distinctIds.stream()
+                            .filter(assessments::containsKey)
+                            .map(assessments::get)
+                            .toList());
+        });
+    }
 
+    private Mono<Map<String, AssessmentResponseDTO>> fetchAndAssessAll(List<String> patientIds) {
+        return Mono.zip(
+                        patientServiceClient.getPatientsInfo(patientIds).collectList(),
+                        countTriggerByPatient(noteServiceClient.getNotesForPatients(patientIds)))
+                .map(patientsAndTriggers -> {
+                    Map<String, AssessmentResponseDTO> assessments = new HashMap<>();
+                    for (PatientDTO patientInfo : patientsAndTriggers.getT1()) {
+                        AssessmentResponseDTO assessment = buildAssessment(patientInfo.getId(), patientInfo,
+                                patientsAndTriggers.getT2().getOrDefault(patientInfo.getId(), 0));
+                        assessments.put(assessment.getPatientId(), assessment);
+                    }
+                    return assessments;
+                });
+    }
+
+    private AssessmentResponseDTO buildAssessment(String patientId, PatientDTO patientInfo, int triggerCount) {
         int patientAge = (int) ChronoUnit.YEARS.between(LocalDate.parse(patientInfo.getBirthDate(), DateTimeFormatter.ofPattern("yyyy-MM-dd")), LocalDate.now());
 
-        String patientRisk = definePatientRisk(triggerCount, patientInfo.getGender(), patientAge);
+        RiskLevelEnum patientRisk = RISK_TABLE.lookup(patientAge, patientInfo.getGender(), triggerCount);
 
         return AssessmentResponseDTO.builder()
                 .patientId(patientId)
                 .age(patientAge)
                 .triggerCount(triggerCount)
-                .risk(patientRisk)
+                .risk(patientRisk.getLabel())
                 .build();
     }
 
-    private String normalizeText(String text) {
-        if (text == null) return "";
-
-        String normalized = Normalizer.normalize(text, Normalizer.Form.NFD)
-                .replaceAll("\\p{InCombiningDiacriticalMarks}+", "");
-
-        return normalized
-                .toLowerCase()
-                .replaceAll("[^\\p{L}\\p{N}\\s]", "")
-                .replaceAll("\\s+", " ")
-                .strip();
+    /**
+     * Lets note-service match this dictionary's terms next to the notes, and only fetches and scans the notes here
+     * when note-service does not expose trigger matching.
+     */
+    private Mono<Integer> countTrigger(String patientId) {
+        return Mono.defer(() -> {
+            TriggerDictionary triggerDictionary = triggerDictionaryProvider.current();
+            return noteServiceClient.getTriggersForPatient(patientId, triggerDictionary.getTerms())
+                    .filter(patientTriggers -> triggerDictionary.getVersion().equals(patientTriggers.getDictionaryVersion()))
+                    .map(patientTriggers -> Long.bitCount(patientTriggers.getTriggerMask()))
+                    .switchIfEmpty(Mono.defer(() -> countTrigger(noteServiceClient.getNotesForPatient(patientId), triggerDictionary)));
+        });
     }
 
-    private int countTrigger(String cleanedNotes) {
-        int triggerCount = 0;
-        for (String trigger : TRIGGERS_LIST) {
-            String normalizedTrigger = normalizeText(trigger);
-            if (cleanedNotes.contains(normalizedTrigger)) {
-                triggerCount++;
-            }
-        }
-        return triggerCount;
+    /**
+     * Feeds each normalized note to the matcher as it arrives and cancels the note stream once every trigger has been seen.
+     */
+    private Mono<Integer> countTrigger(Flux<NoteDTO> notes, TriggerDictionary triggerDictionary) {
+        return Mono.defer(() -> {
+            NoteScan noteScan = new NoteScan(triggerDictionary.getMatcher());
+            StringBuilder buffer = new StringBuilder();
+            return notes
+                    .doOnNext(note -> noteScan.feed(note.getNote(), buffer))
+                    .takeUntil(note -> noteScan.isComplete())
+                    .then(Mono.fromSupplier(noteScan::getMatchedCount));
+        });
     }
 
+    private Mono<Map<String, Integer>> countTriggerByPatient(Flux<NoteDTO> notes) {
+        return Mono.defer(() -> {
+            TriggerMatcher triggerMatcher = triggerDictionaryProvider.current().getMatcher();
+            Map<String, NoteScan> scans = new HashMap<>();
+            StringBuilder buffer = new StringBuilder();
+            return notes
+                    .doOnNext(note -> scans.computeIfAbsent(note.getPatId(), patId -> new NoteScan(triggerMatcher))
+                            .feed(note.getNote(), buffer))
+                    .then(Mono.fromSupplier(() -> {
+                        Map<String, Integer> counts = new HashMap<>();
+                        scans.forEach((patId, noteScan) -> counts.put(patId, noteScan.getMatchedCount()));
+                        return counts;
+                    }));
+        });
+    }
 
-    private String definePatientRisk(int triggerCount, GenderEnum gender, int patientAge) {
-        boolean isMale = gender == GenderEnum.MALE;
-        boolean isFemale = gender == GenderEnum.FEMALE;
-
-        if (triggerCount == 0)
-            return "None";
-
-
-        if (patientAge > 30 && triggerCount >= 2 && triggerCount <= 5)
-            return "Borderline";
+    /**
+     * Scans the notes of one patient one at a time, a trigger only counting when it is found within a single note.
+     * note-service matches its trigger masks note by note the same way, so the bitmap and the scan always agree.
+     * Notes used to be joined with a space and scanned as one text, so a trigger split across the end of a note and
+     * the start of the next one was counted; it no longer is.
+     */
+    private static final class NoteScan {
+        private final TriggerMatcher.Scan scan;
+
+        private NoteScan(TriggerMatcher triggerMatcher) {
+            this.scan = triggerMatcher.newScan();
+        }
 
-        if (patientAge < 30) {
-            if (isMale && triggerCount >= 3 && triggerCount < 5)
-                return "In Danger";
-            if (isFemale && triggerCount >= 4 && triggerCount < 7)
-                return "In Danger";
-        } else {
-            if (triggerCount >= 6 && triggerCount <= 7)
-                return "In Danger";
+        private void feed(String note, StringBuilder buffer) {
+            buffer.setLength(0);
+            TextNormalizer.normalize(note, buffer);
+            scan.feed(buffer).endText();
         }
 
-        if (patientAge < 30) {
-            if (isMale && triggerCount >= 5)
-                return "Early onset";
-            if (isFemale && triggerCount >= 7)
-                return "Early onset";
-        } else {
-            if (triggerCount >= 8)
-                return "Early onset";
+        private boolean isComplete() {
+            return scan.isComplete();
         }
 
-        return "None";
+        private int getMatchedCount() {
+            return scan.getMatchedCount();
+        }
     }
 }
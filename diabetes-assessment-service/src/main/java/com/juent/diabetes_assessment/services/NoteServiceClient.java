@@ -1,28 +1,66 @@
 package com.juent.diabetes_assessment.services;
 
 import com.juent.diabetes_assessment.DTO.NoteDTO;
+import com.juent.diabetes_assessment.DTO.PatientTriggersDTO;
+import com.juent.diabetes_assessment.resilience.DownstreamResilience;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.util.Collection;
 import java.util.List;
 
 @Service
 public class NoteServiceClient {
 
     private final WebClient webClient;
+    private final DownstreamResilience resilience;
 
-    public NoteServiceClient(@Value("${note.service.url}") String noteServiceUrl, WebClient.Builder webClientBuilder) {
+    public NoteServiceClient(@Value("${note.service.url}") String noteServiceUrl,
+                             @Qualifier("noteServiceResilience") DownstreamResilience resilience,
+                             WebClient.Builder webClientBuilder) {
         this.webClient = webClientBuilder.baseUrl(noteServiceUrl).build();
+        this.resilience = resilience;
     }
 
-    public List<NoteDTO> getNotesForPatient(String patientId) {
-        NoteDTO[] notesArray = webClient.get()
-                .uri("/{id}", patientId)
+    /**
+     * Only the note text is filled in; the patient id is set for the batch variant.
+     */
+    public Flux<NoteDTO> getNotesForPatient(String patientId) {
+        return resilience.retryingAll(webClient.get()
+                .uri("/{id}/texts", patientId)
                 .retrieve()
-                .bodyToMono(NoteDTO[].class)
-                .block();
+                .bodyToFlux(NoteDTO.class));
+    }
+
+    /**
+     * A read despite the POST, so it is retried like the other reads.
+     */
+    public Flux<NoteDTO> getNotesForPatients(Collection<String> patientIds) {
+        return resilience.retryingAll(webClient.post()
+                .uri("/batch/texts")
+                .bodyValue(patientIds)
+                .retrieve()
+                .bodyToFlux(NoteDTO.class));
+    }
 
-        return notesArray != null ? List.of(notesArray) : List.of();
+    /**
+     * Triggers matched by note-service next to the notes for the caller's terms, whatever dictionary note-service
+     * uses. A read despite the POST. Empty when note-service does not expose the endpoint or rejects the terms, the
+     * notes being scanned here instead.
+     */
+    public Mono<PatientTriggersDTO> getTriggersForPatient(String patientId, List<String> terms) {
+        return resilience.retrying(webClient.post()
+                        .uri("/{id}/triggers", patientId)
+                        .bodyValue(terms)
+                        .retrieve()
+                        .bodyToMono(PatientTriggersDTO.class))
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.empty())
+                .onErrorResume(WebClientResponseException.MethodNotAllowed.class, e -> Mono.empty())
+                .onErrorResume(WebClientResponseException.BadRequest.class, e -> Mono.empty());
     }
 }
@@ -1,25 +1,76 @@
 package com.juent.diabetes_assessment.services;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.juent.diabetes_assessment.DTO.PatientDTO;
+import com.juent.diabetes_assessment.resilience.DownstreamResilience;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
 
 @Service
 public class PatientServiceClient {
 
-
     private final WebClient webClient;
+    private final DownstreamResilience resilience;
+    private final Cache<String, ValidatedPatient> validatedPatients;
 
-    public PatientServiceClient(@Value("${patient.service.url}") String patientServiceUrl, WebClient.Builder webClientBuilder) {
+    public PatientServiceClient(@Value("${patient.service.url}") String patientServiceUrl,
+                                @Value("${patient.service.etag-cache.max-size}") long eTagCacheMaxSize,
+                                @Qualifier("patientServiceResilience") DownstreamResilience resilience,
+                                WebClient.Builder webClientBuilder) {
         this.webClient = webClientBuilder.baseUrl(patientServiceUrl).build();
+        this.resilience = resilience;
+        this.validatedPatients = Caffeine.newBuilder().maximumSize(eTagCacheMaxSize).build();
     }
 
-    public PatientDTO getPatientInfo(String patientId) {
-        return webClient.get()
+    /**
+     * Revalidates the last copy of the patient with {@code If-None-Match}: patient-service answers 304 without a
+     * body when it is unchanged.
+     */
+    public Mono<PatientDTO> getPatientInfo(String patientId) {
+        ValidatedPatient known = validatedPatients.getIfPresent(patientId);
+        return resilience.retrying(webClient.get()
                 .uri("/{id}", patientId)
+                .headers(headers -> {
+                    if (known != null) {
+                        headers.setIfNoneMatch(known.eTag());
+                    }
+                })
+                .exchangeToMono(response -> {
+                    if (known != null && response.statusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+                        return response.releaseBody().thenReturn(known.patient());
+                    }
+                    if (response.statusCode().isError()) {
+                        return response.createError();
+                    }
+                    String eTag = response.headers().asHttpHeaders().getETag();
+                    return response.bodyToMono(PatientDTO.class)
+                            .doOnNext(patient -> {
+                                if (eTag != null) {
+                                    validatedPatients.put(patientId, new ValidatedPatient(eTag, patient));
+                                }
+                            });
+                }));
+    }
+
+    /**
+     * A read despite the POST, so it is retried like the other reads.
+     */
+    public Flux<PatientDTO> getPatientsInfo(Collection<String> patientIds) {
+        return resilience.retryingAll(webClient.post()
+                .uri("/batch")
+                .bodyValue(patientIds)
                 .retrieve()
-                .bodyToMono(PatientDTO.class)
-                .block();
+                .bodyToFlux(PatientDTO.class));
+    }
+
+    private record ValidatedPatient(String eTag, PatientDTO patient) {
     }
 }
@@ -0,0 +1,57 @@
+package com.juent.diabetes_assessment.trigger;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Trigger terms normalized and compiled once. The version is a digest of the ordered normalized terms, computed the
+ * same way by note-service, so both services can tell whether they agree on what bit {@code i} of a trigger mask means.
+ * A trigger mask being a {@code long}, a dictionary holds at most 64 terms, as in note-service.
+ */
+public final class TriggerDictionary {
+    private final List<String> terms;
+    private final TriggerMatcher matcher;
+    private final String version;
+
+    private TriggerDictionary(List<String> terms) {
+        if (terms.size() > Long.SIZE) {
+            throw new IllegalArgumentException("A trigger dictionary holds at most " + Long.SIZE + " terms");
+        }
+        this.terms = terms;
+        this.matcher = TriggerMatcher.compile(terms);
+        this.version = versionOf(terms);
+    }
+
+    public static TriggerDictionary of(Collection<String> terms) {
+        return new TriggerDictionary(terms.stream().map(TextNormalizer::normalize).toList());
+    }
+
+    public List<String> getTerms() {
+        return terms;
+    }
+
+    public TriggerMatcher getMatcher() {
+        return matcher;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    private static String versionOf(List<String> terms) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String term : terms) {
+                digest.update(term.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+            }
+            return HexFormat.of().formatHex(digest.digest(), 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.juent.diabetes_assessment.benchmark;
+
+import com.juent.diabetes_assessment.cache.AssessmentCache;
+import com.juent.diabetes_assessment.services.DiabetesAssessmentService;
+import com.juent.diabetes_assessment.services.NoteServiceClient;
+import com.juent.diabetes_assessment.services.PatientServiceClient;
+import com.juent.diabetes_assessment.support.StubHttpServer;
+import com.juent.diabetes_assessment.support.StubHttpServer.StubResponse;
+import com.juent.diabetes_assessment.support.TestResilience;
+import com.juent.diabetes_assessment.trigger.TriggerDictionaryProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to serve a wave of concurrent assessments against stub backends answering after {@code backendLatencyMs}.
+ * The blocking path reproduces the former servlet stack: each assessment holds one of 200 request threads
+ * (Tomcat's default pool) until {@code block()} returns. Throughput is {@code concurrency / score}.
+ * The assessment cache is disabled (zero TTL) so that every assessment reaches the backends.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class AssessmentLoadBenchmark {
+
+    private static final int TOMCAT_MAX_THREADS = 200;
+
+    @Param({"200", "1000", "4000"})
+    private int concurrency;
+
+    @Param({"50"})
+    private int backendLatencyMs;
+
+    private StubHttpServer backend;
+    private ConnectionProvider connectionProvider;
+    private DiabetesAssessmentService service;
+    private ExecutorService tomcatThreads;
+
+    @Setup
+    public void setUp() {
+        Duration latency = Duration.ofMillis(backendLatencyMs);
+        backend = StubHttpServer.start()
+                .on("/api/patient/1", StubResponse.json("""
+                        {"firstName":"John","lastName":"Doe","birthDate":"1968-06-22","gender":"MALE"}
+                        """).delayedBy(latency))
+                .on("/api/note/1/texts", StubResponse.json(notes()).delayedBy(latency));
+
+        connectionProvider = ConnectionProvider.builder("load-benchmark")
+                .maxConnections(2 * concurrency)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        WebClient.Builder builder = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connectionProvider)));
+
+        service = new DiabetesAssessmentService(
+                new NoteServiceClient(backend.baseUrl() + "/api/note",
+                        TestResilience.of(Duration.ofSeconds(30), 1, Integer.MAX_VALUE), builder.clone()),
+                new PatientServiceClient(backend.baseUrl() + "/api/patient", 1,
+                        TestResilience.of(Duration.ofSeconds(30), 1, Integer.MAX_VALUE), builder.clone()),
+                new AssessmentCache(1, Duration.ZERO, new SimpleMeterRegistry()),
+                new TriggerDictionaryProvider(new ClassPathResource("triggers.txt"), event -> {}));
+        tomcatThreads = Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        tomcatThreads.shutdownNow();
+        connectionProvider.dispose();
+        backend.close();
+    }
+
+    @Benchmark
+    public long reactive() {
+        return Flux.range(0, concurrency)
+                .flatMap(i -> service.assessPatient("1"), concurrency)
+                .count()
+                .block();
+    }
+
+    @Benchmark
+    public long blockingRequestThreads() throws Exception {
+        List<Future<?>> assessments = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            assessments.add(tomcatThreads.submit(() -> service.assessPatient("1").block()));
+        }
+        for (Future<?> assessment : assessments) {
+            assessment.get();
+        }
+        return assessments.size();
+    }
+
+    private static String notes() {
+        StringBuilder notes = new StringBuilder("[");
+        for (int i = 0; i < 20; i++) {
+            if (i > 0) notes.append(',');
+            notes.append("{\"note\":\"Le patient se sent bien, poids stable. Visite ")
+                    .append(i)
+                    .append(".\"}");
+        }
+        return notes.append(']').toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AssessmentLoadBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
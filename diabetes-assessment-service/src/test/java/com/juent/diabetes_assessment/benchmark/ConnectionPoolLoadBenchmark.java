@@ -0,0 +1,142 @@
+package com.juent.diabetes_assessment.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.juent.diabetes_assessment.cache.AssessmentCache;
+import com.juent.diabetes_assessment.configuration.WebClientConfig;
+import com.juent.diabetes_assessment.services.DiabetesAssessmentService;
+import com.juent.diabetes_assessment.services.NoteServiceClient;
+import com.juent.diabetes_assessment.services.PatientServiceClient;
+import com.juent.diabetes_assessment.support.StubHttpServer;
+import com.juent.diabetes_assessment.support.StubHttpServer.StubResponse;
+import com.juent.diabetes_assessment.support.TestResilience;
+import com.juent.diabetes_assessment.trigger.TriggerDictionaryProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency of assessments kept {@code concurrency} at a time for {@code window}, against stub backends answering
+ * after {@code latencyMs}, once with Reactor Netty's default global pool (what a bare {@code WebClient.builder()}
+ * uses) and once with the pool built by {@link WebClientConfig} from the default properties.
+ * Reports assessments per second, latency percentiles and failed assessments (pool acquisition refused or timed out).
+ * Assessments cycle through {@code 4 * concurrency} patients so that concurrent assessments never share a backend call.
+ * <p>
+ * Arguments, all optional: concurrency (500), latency in ms (50), window in s (10).
+ */
+public class ConnectionPoolLoadBenchmark {
+
+    private static final Duration WARMUP = Duration.ofSeconds(3);
+
+    public static void main(String[] args) {
+        int concurrency = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        Duration latency = Duration.ofMillis(args.length > 1 ? Long.parseLong(args[1]) : 50);
+        Duration window = Duration.ofSeconds(args.length > 2 ? Long.parseLong(args[2]) : 10);
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+
+        System.out.printf("concurrency %d, backend latency %d ms, window %d s%n", concurrency, latency.toMillis(), window.toSeconds());
+        System.out.printf("%-16s %14s %9s %9s %9s %9s%n", "pool", "assessments/s", "p50 ms", "p99 ms", "max ms", "failed");
+
+        int patients = 4 * concurrency;
+        try (StubHttpServer backend = StubHttpServer.start()) {
+            for (int id = 0; id < patients; id++) {
+                backend.on("/api/patient/" + id, StubResponse.json("""
+                                {"firstName":"John","lastName":"Doe","birthDate":"1968-06-22","gender":"MALE"}
+                                """).delayedBy(latency))
+                        .on("/api/note/" + id + "/texts", StubResponse.json(notes()).delayedBy(latency));
+            }
+
+            run("reactor default", HttpClient.create(), backend, concurrency, patients, window);
+
+            WebClientConfig config = new WebClientConfig();
+            ConnectionProvider tuned = config.downstreamConnectionProvider(200, 2000, Duration.ofSeconds(2),
+                    Duration.ofSeconds(15), Duration.ofMinutes(5), Duration.ofSeconds(30));
+            try {
+                run("tuned", config.downstreamHttpClient(tuned, Duration.ofSeconds(1), true, false),
+                        backend, concurrency, patients, window);
+            } finally {
+                tuned.dispose();
+            }
+        }
+    }
+
+    private static void run(String label, HttpClient httpClient, StubHttpServer backend, int concurrency,
+                            int patients, Duration window) {
+        WebClient.Builder builder = WebClient.builder().clientConnector(new ReactorClientHttpConnector(httpClient));
+        DiabetesAssessmentService service = new DiabetesAssessmentService(
+                new NoteServiceClient(backend.baseUrl() + "/api/note",
+                        TestResilience.of(Duration.ofSeconds(30), 1, Integer.MAX_VALUE), builder.clone()),
+                new PatientServiceClient(backend.baseUrl() + "/api/patient", 1,
+                        TestResilience.of(Duration.ofSeconds(30), 1, Integer.MAX_VALUE), builder.clone()),
+                new AssessmentCache(1, Duration.ZERO, new SimpleMeterRegistry()),
+                new TriggerDictionaryProvider(new ClassPathResource("triggers.txt"), event -> {}));
+
+        AtomicInteger ids = new AtomicInteger();
+        load(service, concurrency, patients, ids, WARMUP, new long[1 << 16], new AtomicInteger(), new AtomicLong());
+
+        long[] latencies = new long[1 << 22];
+        AtomicInteger recorded = new AtomicInteger();
+        AtomicLong failed = new AtomicLong();
+        load(service, concurrency, patients, ids, window, latencies, recorded, failed);
+
+        int count = Math.min(recorded.get(), latencies.length);
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        System.out.printf("%-16s %14.1f %9.1f %9.1f %9.1f %9d%n", label, count / (double) window.toSeconds(),
+                millis(percentile(sorted, 0.50)), millis(percentile(sorted, 0.99)),
+                millis(count == 0 ? 0 : sorted[count - 1]), failed.get());
+    }
+
+    /**
+     * Starts a new assessment each time one completes until the window is over.
+     */
+    private static void load(DiabetesAssessmentService service, int concurrency, int patients, AtomicInteger ids,
+                             Duration window, long[] latencies, AtomicInteger recorded, AtomicLong failed) {
+        long deadline = System.nanoTime() + window.toNanos();
+        Flux.range(0, concurrency)
+                .flatMap(client -> Mono.defer(() -> {
+                            long start = System.nanoTime();
+                            return service.assessPatient(String.valueOf(ids.getAndIncrement() % patients))
+                                    .doOnSuccess(assessment -> {
+                                        int slot = recorded.getAndIncrement();
+                                        if (slot < latencies.length) {
+                                            latencies[slot] = System.nanoTime() - start;
+                                        }
+                                    })
+                                    .doOnError(e -> failed.incrementAndGet())
+                                    .onErrorResume(e -> Mono.empty());
+                        })
+                        .repeat(() -> System.nanoTime() < deadline), concurrency)
+                .blockLast();
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1)];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static String notes() {
+        StringBuilder notes = new StringBuilder("[");
+        for (int i = 0; i < 20; i++) {
+            if (i > 0) notes.append(',');
+            notes.append("{\"note\":\"Le patient se sent bien, poids stable. Visite ")
+                    .append(i)
+                    .append(".\"}");
+        }
+        return notes.append(']').toString();
+    }
+}
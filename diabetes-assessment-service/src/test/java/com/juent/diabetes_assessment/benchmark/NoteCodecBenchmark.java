@@ -0,0 +1,96 @@
+package com.juent.diabetes_assessment.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.juent.diabetes_assessment.DTO.NoteDTO;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding of a batch of note texts ({@code POST /api/note/batch/texts}) in JSON and in Smile, for
+ * patients with long note histories: {@code patients} patients of {@code notesPerPatient} notes each.
+ * Payload sizes are printed at setup.
+ * Run with {@code java -cp target/test-classes:<test classpath> com.juent.diabetes_assessment.benchmark.NoteCodecBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NoteCodecBenchmark {
+
+    private static final String[] SENTENCES = {
+            "Le patient déclare qu'il fume depuis peu.",
+            "Poids stable depuis la dernière visite, taille inchangée.",
+            "Hémoglobine A1C supérieure au niveau recommandé.",
+            "Le patient signale des vertiges occasionnels après l'effort.",
+            "Microalbumine élevée, contrôle prévu dans trois mois.",
+            "Tests de laboratoire indiquant un taux de cholestérol LDL élevé.",
+            "Le patient se sent bien et ne signale aucune réaction aux anticorps."
+    };
+
+    @Param({"1", "50"})
+    private int patients;
+
+    @Param({"20", "200"})
+    private int notesPerPatient;
+
+    @Param({"json", "smile"})
+    private String format;
+
+    private ObjectMapper mapper;
+    private ObjectReader reader;
+    private List<NoteDTO> notes;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        Jackson2ObjectMapperBuilder builder = "smile".equals(format)
+                ? Jackson2ObjectMapperBuilder.smile()
+                : Jackson2ObjectMapperBuilder.json();
+        mapper = builder.serializationInclusion(JsonInclude.Include.NON_NULL).build();
+        reader = mapper.readerForListOf(NoteDTO.class);
+
+        Random random = new Random(42);
+        notes = new ArrayList<>(patients * notesPerPatient);
+        for (int patient = 0; patient < patients; patient++) {
+            for (int i = 0; i < notesPerPatient; i++) {
+                StringBuilder text = new StringBuilder();
+                for (int sentence = 0; sentence < 4; sentence++) {
+                    text.append(SENTENCES[random.nextInt(SENTENCES.length)]).append(' ');
+                }
+                notes.add(new NoteDTO("65f1c2a9e4b0a1d2c3e4f5" + String.format("%02d", patient % 100), null,
+                        text.toString().trim()));
+            }
+        }
+        encoded = mapper.writeValueAsBytes(notes);
+        System.out.printf("%n%s, %d patients x %d notes: %d bytes%n", format, patients, notesPerPatient, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return mapper.writeValueAsBytes(notes);
+    }
+
+    @Benchmark
+    public List<NoteDTO> decode() throws IOException {
+        return reader.readValue(encoded);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(NoteCodecBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,102 @@
+package com.juent.diabetes_assessment.benchmark;
+
+import com.juent.diabetes_assessment.enums.GenderEnum;
+import com.juent.diabetes_assessment.enums.RiskLevelEnum;
+import com.juent.diabetes_assessment.risk.RiskRules;
+import com.juent.diabetes_assessment.risk.RiskTable;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of classifying a batch of random patients with the former branching against the compiled risk table.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RiskTableBenchmark {
+
+    private static final int PATIENTS = 1024;
+
+    private final RiskTable riskTable = RiskTable.compile(RiskRules.DIABETES, RiskRules.DEFAULT);
+    private final int[] ages = new int[PATIENTS];
+    private final GenderEnum[] genders = new GenderEnum[PATIENTS];
+    private final int[] triggerCounts = new int[PATIENTS];
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < PATIENTS; i++) {
+            ages[i] = 18 + random.nextInt(70);
+            genders[i] = GenderEnum.values()[random.nextInt(GenderEnum.values().length)];
+            triggerCounts[i] = random.nextInt(12);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PATIENTS)
+    public int branching() {
+        int hash = 0;
+        for (int i = 0; i < PATIENTS; i++) {
+            hash += legacyDefinePatientRisk(triggerCounts[i], genders[i], ages[i]).hashCode();
+        }
+        return hash;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PATIENTS)
+    public int lookupTable() {
+        int hash = 0;
+        for (int i = 0; i < PATIENTS; i++) {
+            RiskLevelEnum risk = riskTable.lookup(ages[i], genders[i], triggerCounts[i]);
+            hash += risk.getLabel().hashCode();
+        }
+        return hash;
+    }
+
+    private static String legacyDefinePatientRisk(int triggerCount, GenderEnum gender, int patientAge) {
+        boolean isMale = gender == GenderEnum.MALE;
+        boolean isFemale = gender == GenderEnum.FEMALE;
+
+        if (triggerCount == 0)
+            return "None";
+
+        if (patientAge > 30 && triggerCount >= 2 && triggerCount <= 5)
+            return "Borderline";
+
+        if (patientAge < 30) {
+            if (isMale && triggerCount >= 3 && triggerCount < 5)
+                return "In Danger";
+            if (isFemale && triggerCount >= 4 && triggerCount < 7)
+                return "In Danger";
+        } else {
+            if (triggerCount >= 6 && triggerCount <= 7)
+                return "In Danger";
+        }
+
+        if (patientAge < 30) {
+            if (isMale && triggerCount >= 5)
+                return "Early onset";
+            if (isFemale && triggerCount >= 7)
+                return "Early onset";
+        } else {
+            if (triggerCount >= 8)
+                return "Early onset";
+        }
+
+        return "None";
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RiskTableBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
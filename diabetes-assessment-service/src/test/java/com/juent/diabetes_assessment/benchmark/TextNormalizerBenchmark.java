@@ -0,0 +1,69 @@
+package com.juent.diabetes_assessment.benchmark;
+
+import com.juent.diabetes_assessment.trigger.TextNormalizer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.text.Normalizer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency and allocation rate ({@code gc.alloc.rate.norm}) of the single-pass normalizer against the former regex chain.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TextNormalizerBenchmark {
+
+    private static final String NOTE = "Le patient déclare qu'il fume depuis peu. Hémoglobine A1C supérieure au niveau "
+            + "recommandé ; il se plaint de vertiges fréquents et d'une réaction aux médicaments !  ";
+
+    @Param({"1", "10", "100"})
+    private int repeat;
+
+    private String note;
+    private StringBuilder buffer;
+
+    @Setup
+    public void setUp() {
+        note = NOTE.repeat(repeat);
+        buffer = new StringBuilder(note.length());
+    }
+
+    @Benchmark
+    public String regexChain() {
+        String normalized = Normalizer.normalize(note, Normalizer.Form.NFD)
+                .replaceAll("\\p{InCombiningDiacriticalMarks}+", "");
+
+        return normalized
+                .toLowerCase()
+                .replaceAll("[^\\p{L}\\p{N}\\s]", "")
+                .replaceAll("\\s+", " ")
+                .strip();
+    }
+
+    @Benchmark
+    public String singlePass() {
+        return TextNormalizer.normalize(note);
+    }
+
+    @Benchmark
+    public int singlePassReusedBuffer() {
+        buffer.setLength(0);
+        TextNormalizer.normalize(note, buffer);
+        return buffer.length();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TextNormalizerBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
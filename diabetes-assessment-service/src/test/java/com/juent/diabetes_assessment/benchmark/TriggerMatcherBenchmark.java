@@ -0,0 +1,92 @@
+package com.juent.diabetes_assessment.benchmark;
+
+import com.juent.diabetes_assessment.trigger.TriggerMatcher;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.text.Normalizer;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the compiled trigger automaton with the former per-trigger {@code String.contains} loop.
+ * Run with {@code java -cp target/test-classes:<test classpath> com.juent.diabetes_assessment.benchmark.TriggerMatcherBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TriggerMatcherBenchmark {
+
+    private static final List<String> TRIGGERS = List.of(
+            "hemoglobine a1c", "microalbumine", "taille", "poids", "fume", "anormal",
+            "cholestérol", "vertige", "rechute", "reaction", "anticorps"
+    );
+
+    private static final String[] WORDS = {
+            "le", "patient", "indique", "qu'il", "se", "sent", "bien", "depuis", "la", "derniere", "visite",
+            "tension", "arterielle", "stable", "sommeil", "correct", "activite", "physique", "reguliere"
+    };
+
+    @Param({"10", "100", "1000"})
+    private int noteCount;
+
+    private String cleanedNotes;
+    private TriggerMatcher matcher;
+
+    @Setup
+    public void setUp() {
+        matcher = TriggerMatcher.compile(TRIGGERS.stream().map(TriggerMatcherBenchmark::normalizeText).toList());
+
+        Random random = new Random(noteCount);
+        StringBuilder notes = new StringBuilder();
+        for (int n = 0; n < noteCount; n++) {
+            for (int w = 0; w < 60; w++) {
+                notes.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            }
+            if (n == noteCount - 1) {
+                notes.append(TRIGGERS.get(random.nextInt(TRIGGERS.size()))).append(' ');
+            }
+        }
+        cleanedNotes = normalizeText(notes.toString());
+    }
+
+    @Benchmark
+    public int legacyContainsLoop() {
+        int triggerCount = 0;
+        for (String trigger : TRIGGERS) {
+            String normalizedTrigger = normalizeText(trigger);
+            if (cleanedNotes.contains(normalizedTrigger)) {
+                triggerCount++;
+            }
+        }
+        return triggerCount;
+    }
+
+    @Benchmark
+    public int compiledMatcher() {
+        return matcher.countDistinct(cleanedNotes);
+    }
+
+    private static String normalizeText(String text) {
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{InCombiningDiacriticalMarks}+", "");
+
+        return normalized
+                .toLowerCase()
+                .replaceAll("[^\\p{L}\\p{N}\\s]", "")
+                .replaceAll("\\s+", " ")
+                .strip();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TriggerMatcherBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,83 @@
+package com.juent.diabetes_assessment.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.juent.diabetes_assessment.DTO.NoteDTO;
+import com.juent.diabetes_assessment.services.NoteServiceClient;
+import com.juent.diabetes_assessment.support.StubHttpServer;
+import com.juent.diabetes_assessment.support.StubHttpServer.StubResponse;
+import com.juent.diabetes_assessment.support.TestResilience;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WebClientConfigTest {
+
+    private StubHttpServer noteService;
+    private WebClientConfig webClientConfig;
+
+    @BeforeEach
+    public void init() {
+        noteService = StubHttpServer.start();
+        webClientConfig = new WebClientConfig();
+        ReflectionTestUtils.setField(webClientConfig, "internalAuthToken", "token");
+        ReflectionTestUtils.setField(webClientConfig, "maxInMemorySize", DataSize.ofMegabytes(2));
+    }
+
+    @AfterEach
+    public void close() {
+        noteService.close();
+    }
+
+    @Test
+    public void webClientBuilder_shouldReadSmile_whenBinaryCodecIsEnabled() throws Exception {
+        ReflectionTestUtils.setField(webClientConfig, "binaryCodec", true);
+        byte[] smile = new ObjectMapper(new SmileFactory())
+                .writeValueAsBytes(List.of(Map.of("note", "Fumeur"), Map.of("note", "Poids stable")));
+        noteService.on("/api/note/1/texts", StubResponse.of(WebClientConfig.APPLICATION_SMILE, smile));
+
+        List<NoteDTO> notes = noteServiceClient().getNotesForPatient("1").collectList().block();
+
+        assertNotNull(notes);
+        assertEquals(List.of("Fumeur", "Poids stable"), notes.stream().map(NoteDTO::getNote).toList());
+        assertTrue(noteService.lastRequestHeader("/api/note/1/texts", HttpHeaders.ACCEPT)
+                .startsWith(WebClientConfig.APPLICATION_SMILE));
+        assertEquals("token", noteService.lastRequestHeader("/api/note/1/texts", "X-Internal-Auth"));
+    }
+
+    @Test
+    public void webClientBuilder_shouldFallBackToJson_whenServiceOnlyProducesJson() {
+        ReflectionTestUtils.setField(webClientConfig, "binaryCodec", true);
+        noteService.on("/api/note/1/texts", StubResponse.json("[{\"note\":\"Fumeur\"}]"));
+
+        List<NoteDTO> notes = noteServiceClient().getNotesForPatient("1").collectList().block();
+
+        assertNotNull(notes);
+        assertEquals("Fumeur", notes.getFirst().getNote());
+    }
+
+    @Test
+    public void webClientBuilder_shouldNotAskForSmile_whenBinaryCodecIsDisabled() {
+        noteService.on("/api/note/1/texts", StubResponse.json("[]"));
+
+        noteServiceClient().getNotesForPatient("1").collectList().block();
+
+        assertFalse(String.valueOf(noteService.lastRequestHeader("/api/note/1/texts", HttpHeaders.ACCEPT))
+                .contains(WebClientConfig.APPLICATION_SMILE));
+    }
+
+    private NoteServiceClient noteServiceClient() {
+        return new NoteServiceClient(noteService.baseUrl() + "/api/note", TestResilience.of(Duration.ofSeconds(5)),
+                webClientConfig.webClientBuilder(HttpClient.create()));
+    }
+}
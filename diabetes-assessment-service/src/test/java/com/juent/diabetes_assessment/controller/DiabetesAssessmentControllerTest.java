@@ -1,12 +1,19 @@
 package com.juent.diabetes_assessment.controller;
 
 import com.juent.diabetes_assessment.DTO.AssessmentResponseDTO;
+import com.juent.diabetes_assessment.exception.GlobalExceptionHandler;
 import com.juent.diabetes_assessment.services.DiabetesAssessmentService;
 import org.junit.jupiter.api.*;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -16,7 +23,6 @@ public class DiabetesAssessmentControllerTest {
 
     private AutoCloseable mock;
 
-    @InjectMocks
     private DiabetesAssessmentController diabetesAssessmentController;
 
     @Mock
@@ -27,6 +33,7 @@ public class DiabetesAssessmentControllerTest {
     @BeforeEach
     public void init() {
         mock = MockitoAnnotations.openMocks(this);
+        diabetesAssessmentController = new DiabetesAssessmentController(diabetesAssessmentService, 2);
 
         assessmentResponse = AssessmentResponseDTO.builder()
                 .patientId("1")
@@ -45,10 +52,11 @@ public class DiabetesAssessmentControllerTest {
 
     @Test
     public void assessPatient_shouldReturnRiskAssessment() {
-        when(diabetesAssessmentService.assessPatient("1")).thenReturn(assessmentResponse);
+        when(diabetesAssessmentService.assessPatient("1")).thenReturn(Mono.just(assessmentResponse));
 
-        ResponseEntity<AssessmentResponseDTO> response = diabetesAssessmentController.assessPatient("1");
+        ResponseEntity<AssessmentResponseDTO> response = diabetesAssessmentController.assessPatient("1").block();
 
+        assertNotNull(response);
         assertEquals(OK, response.getStatusCode());
         assertNotNull(response.getBody());
         assertEquals("Borderline", response.getBody().getRisk());
@@ -70,4 +78,41 @@ public class DiabetesAssessmentControllerTest {
         verify(diabetesAssessmentService, times(1)).assessPatient("1");
     }
 
+    @Test
+    public void assessPatient_shouldPropagateError_whenAssessmentFailsAsynchronously() {
+        when(diabetesAssessmentService.assessPatient("1"))
+                .thenReturn(Mono.error(new RuntimeException("Service indisponible")));
+
+        StepVerifier.create(diabetesAssessmentController.assessPatient("1"))
+                .expectErrorMessage("Service indisponible")
+                .verify();
+    }
+
+    @Test
+    public void assessPatients_shouldReturnEveryAssessment() {
+        when(diabetesAssessmentService.assessPatients(List.of("1"))).thenReturn(Flux.just(assessmentResponse));
+
+        StepVerifier.create(diabetesAssessmentController.assessPatients(List.of("1")))
+                .expectNext(assessmentResponse)
+                .verifyComplete();
+    }
+
+    @Test
+    public void assessPatients_shouldReturnBadRequest_whenBatchAboveMaxSize() {
+        WebTestClient webTestClient = WebTestClient.bindToController(diabetesAssessmentController)
+                .controllerAdvice(new GlobalExceptionHandler())
+                .build();
+
+        webTestClient.post().uri("/api/assess/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of("1", "2", "3"))
+                .exchange()
+                .expectStatus().isBadRequest();
+        verifyNoInteractions(diabetesAssessmentService);
+    }
+
+    @Test
+    public void constructor_shouldRejectNonPositiveMaxBatchSize() {
+        assertThrows(IllegalArgumentException.class, () -> new DiabetesAssessmentController(diabetesAssessmentService, 0));
+    }
 }
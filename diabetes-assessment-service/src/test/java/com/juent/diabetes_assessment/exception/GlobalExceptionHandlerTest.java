@@ -1,10 +1,13 @@
 package com.juent.diabetes_assessment.exception;
 
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import org.junit.jupiter.api.*;
 import org.springframework.http.ResponseEntity;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
 
 public class GlobalExceptionHandlerTest {
 
@@ -27,6 +30,19 @@ public class GlobalExceptionHandlerTest {
         assertTrue(response.getBody().contains("Test runtime error"));
     }
 
+    @Test
+    public void handleDownstreamUnavailable_shouldReturnServiceUnavailable() {
+        CircuitBreaker circuitBreaker = CircuitBreaker.ofDefaults("noteService");
+        circuitBreaker.transitionToOpenState();
+
+        ResponseEntity<String> response = handler.handleDownstreamUnavailable(
+                CallNotPermittedException.createCallNotPermittedException(circuitBreaker));
+
+        assertEquals(SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertTrue(response.getBody().contains("noteService"));
+    }
+
     @Test
     public void handleGenericException_shouldReturnInternalServerError() {
         Exception ex = new Exception("Generic error");
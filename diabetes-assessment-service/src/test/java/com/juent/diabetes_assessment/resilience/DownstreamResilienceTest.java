@@ -0,0 +1,88 @@
+package com.juent.diabetes_assessment.resilience;
+
+import com.juent.diabetes_assessment.support.TestResilience;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DownstreamResilienceTest {
+
+    @Test
+    public void retryingAll_shouldRetry_whenAnAttemptFailsBeforeItsFirstElement() {
+        DownstreamResilience resilience = TestResilience.of(Duration.ofSeconds(5));
+        AtomicInteger attempts = new AtomicInteger();
+
+        List<Integer> elements = resilience.retryingAll(Flux.defer(() -> attempts.incrementAndGet() == 1
+                        ? Flux.<Integer>error(new TimeoutException())
+                        : Flux.just(1, 2, 3)))
+                .collectList()
+                .block();
+
+        assertEquals(List.of(1, 2, 3), elements);
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    public void retryingAll_shouldFailWithoutRepeatingElements_whenAnAttemptFailsMidway() {
+        DownstreamResilience resilience = TestResilience.of(Duration.ofSeconds(5));
+        AtomicInteger attempts = new AtomicInteger();
+
+        StepVerifier.create(resilience.retryingAll(Flux.defer(() -> {
+                    attempts.incrementAndGet();
+                    return Flux.just(1, 2).concatWith(Flux.error(new TimeoutException()));
+                })))
+                .expectNext(1, 2)
+                .expectError(TimeoutException.class)
+                .verify();
+
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    public void retryingAll_shouldBoundTheWaitBetweenElements_notTheWholeStream() {
+        DownstreamResilience resilience = TestResilience.of(Duration.ofMillis(200), 1, 500);
+
+        assertEquals(10L, resilience.retryingAll(Flux.interval(Duration.ofMillis(50)).take(10)).count().block());
+        StepVerifier.create(resilience.retryingAll(Flux.just(1L).concatWith(Flux.interval(Duration.ofMillis(500)))))
+                .expectNext(1L)
+                .expectError(TimeoutException.class)
+                .verify();
+    }
+
+    @Test
+    public void once_shouldRejectCall_whenBulkheadIsFull() {
+        DownstreamResilience resilience = TestResilience.of(Duration.ofSeconds(5), 1, 1);
+        Disposable pending = resilience.once(Mono.never()).subscribe();
+        try {
+            assertThrows(BulkheadFullException.class, () -> resilience.once(Mono.just(1)).block());
+        } finally {
+            pending.dispose();
+        }
+        assertEquals(1, resilience.once(Mono.just(1)).block());
+    }
+
+    @Test
+    public void transientFailure_shouldOnlyMatchTimeoutsConnectionErrorsAndServerErrors() {
+        TransientFailure transientFailure = new TransientFailure();
+
+        assertTrue(transientFailure.test(new TimeoutException()));
+        assertTrue(transientFailure.test(WebClientResponseException.create(HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Service Unavailable", HttpHeaders.EMPTY, new byte[0], null)));
+        assertFalse(transientFailure.test(WebClientResponseException.create(HttpStatus.NOT_FOUND.value(),
+                "Not Found", HttpHeaders.EMPTY, new byte[0], null)));
+        assertFalse(transientFailure.test(new IllegalStateException()));
+    }
+}
@@ -0,0 +1,79 @@
+package com.juent.diabetes_assessment.risk;
+
+import com.juent.diabetes_assessment.enums.GenderEnum;
+import com.juent.diabetes_assessment.enums.RiskLevelEnum;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static com.juent.diabetes_assessment.risk.RiskRule.Range.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RiskTableTest {
+
+    @Test
+    public void lookup_shouldMatchFormerBranching_forEveryAgeGenderAndTriggerCount() {
+        RiskTable table = RiskTable.compile(RiskRules.DIABETES, RiskRules.DEFAULT);
+        List<GenderEnum> genders = Stream.concat(Arrays.stream(GenderEnum.values()), Stream.of((GenderEnum) null)).toList();
+
+        for (int age = -2; age <= 150; age++) {
+            for (GenderEnum gender : genders) {
+                for (int triggerCount = 0; triggerCount <= Long.SIZE; triggerCount++) {
+                    assertEquals(legacyDefinePatientRisk(triggerCount, gender, age),
+                            table.lookup(age, gender, triggerCount).getLabel(),
+                            "age " + age + ", gender " + gender + ", triggers " + triggerCount);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void lookup_shouldApplyFirstMatchingRule() {
+        RiskTable table = RiskTable.compile(List.of(
+                new RiskRule(atLeast(60), Set.of(GenderEnum.FEMALE), atLeast(1), RiskLevelEnum.EARLY_ONSET),
+                new RiskRule(any(), Set.of(), atLeast(1), RiskLevelEnum.BORDERLINE)
+        ), RiskLevelEnum.NONE);
+
+        assertEquals(RiskLevelEnum.EARLY_ONSET, table.lookup(60, GenderEnum.FEMALE, 3));
+        assertEquals(RiskLevelEnum.BORDERLINE, table.lookup(59, GenderEnum.FEMALE, 3));
+        assertEquals(RiskLevelEnum.BORDERLINE, table.lookup(60, GenderEnum.MALE, 1));
+        assertEquals(RiskLevelEnum.NONE, table.lookup(60, GenderEnum.FEMALE, 0));
+    }
+
+    private static String legacyDefinePatientRisk(int triggerCount, GenderEnum gender, int patientAge) {
+        boolean isMale = gender == GenderEnum.MALE;
+        boolean isFemale = gender == GenderEnum.FEMALE;
+
+        if (triggerCount == 0)
+            return "None";
+
+
+        if (patientAge > 30 && triggerCount >= 2 && triggerCount <= 5)
+            return "Borderline";
+
+        if (patientAge < 30) {
+            if (isMale && triggerCount >= 3 && triggerCount < 5)
+                return "In Danger";
+            if (isFemale && triggerCount >= 4 && triggerCount < 7)
+                return "In Danger";
+        } else {
+            if (triggerCount >= 6 && triggerCount <= 7)
+                return "In Danger";
+        }
+
+        if (patientAge < 30) {
+            if (isMale && triggerCount >= 5)
+                return "Early onset";
+            if (isFemale && triggerCount >= 7)
+                return "Early onset";
+        } else {
+            if (triggerCount >= 8)
+                return "Early onset";
+        }
+
+        return "None";
+    }
+}
@@ -3,28 +3,45 @@ package com.juent.diabetes_assessment.services;
 import com.juent.diabetes_assessment.DTO.AssessmentResponseDTO;
 import com.juent.diabetes_assessment.DTO.NoteDTO;
 import com.juent.diabetes_assessment.DTO.PatientDTO;
+import com.juent.diabetes_assessment.DTO.PatientTriggersDTO;
+import com.juent.diabetes_assessment.cache.AssessmentCache;
 import com.juent.diabetes_assessment.enums.GenderEnum;
+import com.juent.diabetes_assessment.event.PatientDataChangedEvent;
+import com.juent.diabetes_assessment.support.LongNoteHistory;
+import com.juent.diabetes_assessment.support.StubHttpServer;
+import com.juent.diabetes_assessment.support.StubHttpServer.StubResponse;
+import com.juent.diabetes_assessment.support.TestResilience;
+import com.juent.diabetes_assessment.trigger.TriggerDictionaryProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 
-import java.lang.reflect.Method;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 public class DiabetesAssessmentServiceTest {
 
     private AutoCloseable mock;
 
-    private Method normalizeText;
-    private Method countTrigger;
-
     @InjectMocks
     private DiabetesAssessmentService diabetesAssessmentService;
 
@@ -34,18 +51,19 @@ public class DiabetesAssessmentServiceTest {
     @Mock
     private PatientServiceClient patientServiceClient;
 
+    @Spy
+    private AssessmentCache assessmentCache = new AssessmentCache(100, Duration.ofMinutes(5), new SimpleMeterRegistry());
+
+    @Spy
+    private TriggerDictionaryProvider triggerDictionaryProvider = new TriggerDictionaryProvider(new ClassPathResource("triggers.txt"), event -> {});
+
     private PatientDTO patient;
     private List<NoteDTO> notes;
 
     @BeforeEach
-    public void init() throws NoSuchMethodException {
+    public void init() {
         mock = MockitoAnnotations.openMocks(this);
 
-        normalizeText = DiabetesAssessmentService.class.getDeclaredMethod("normalizeText", String.class);
-        countTrigger = DiabetesAssessmentService.class.getDeclaredMethod("countTrigger", String.class);
-        normalizeText.setAccessible(true);
-        countTrigger.setAccessible(true);
-
         patient = new PatientDTO();
         patient.setBirthDate("2004-06-18");
         patient.setGender(GenderEnum.MALE);
@@ -57,6 +75,8 @@ public class DiabetesAssessmentServiceTest {
         note2.setNote("Le patient se plaint de vertiges. Réaction aux médicaments.");
 
         notes = List.of(note1, note2);
+
+        when(noteServiceClient.getTriggersForPatient(anyString(), anyList())).thenReturn(Mono.empty());
     }
 
     @AfterEach
@@ -66,10 +86,10 @@ public class DiabetesAssessmentServiceTest {
 
     @Test
     public void assessPatient_shouldReturnCorrectRisk() {
-        when(patientServiceClient.getPatientInfo("1")).thenReturn(patient);
-        when(noteServiceClient.getNotesForPatient("1")).thenReturn(notes);
+        when(patientServiceClient.getPatientInfo("1")).thenReturn(Mono.just(patient));
+        when(noteServiceClient.getNotesForPatient("1")).thenReturn(Flux.fromIterable(notes));
 
-        AssessmentResponseDTO result = diabetesAssessmentService.assessPatient("1");
+        AssessmentResponseDTO result = diabetesAssessmentService.assessPatient("1").block();
 
         assertNotNull(result);
         assertEquals("1", result.getPatientId());
@@ -84,10 +104,10 @@ public class DiabetesAssessmentServiceTest {
     public void assessPatient_shouldReturnNone_whenNoTrigger() {
         NoteDTO emptyNote = new NoteDTO();
         emptyNote.setNote("Le patient va bien. Aucun symptôme.");
-        when(patientServiceClient.getPatientInfo("2")).thenReturn(patient);
-        when(noteServiceClient.getNotesForPatient("2")).thenReturn(List.of(emptyNote));
+        when(patientServiceClient.getPatientInfo("2")).thenReturn(Mono.just(patient));
+        when(noteServiceClient.getNotesForPatient("2")).thenReturn(Flux.just(emptyNote));
 
-        AssessmentResponseDTO result = diabetesAssessmentService.assessPatient("2");
+        AssessmentResponseDTO result = diabetesAssessmentService.assessPatient("2").block();
 
         assertNotNull(result);
         assertEquals("2", result.getPatientId());
@@ -96,20 +116,252 @@ public class DiabetesAssessmentServiceTest {
     }
 
     @Test
-    public void normalizeText_shouldReturnCleanLowercaseString() throws Exception {
-        String raw = "   RéAction  aux MÉdIcaments!!!  ";
-        String normalized = (String) normalizeText.invoke(diabetesAssessmentService, raw);
+    public void assessPatient_shouldFetchPatientAndNotesConcurrently() {
+        Sinks.Empty<Void> notesSubscribed = Sinks.empty();
+        when(patientServiceClient.getPatientInfo("3")).thenReturn(Mono.just(patient)
+                .delayUntil(p -> notesSubscribed.asMono())
+                .timeout(Duration.ofSeconds(2)));
+        when(noteServiceClient.getNotesForPatient("3")).thenReturn(Flux.fromIterable(notes)
+                .doOnSubscribe(subscription -> notesSubscribed.tryEmitEmpty()));
+
+        AssessmentResponseDTO result = diabetesAssessmentService.assessPatient("3").block();
+
+        assertEquals(4, result.getTriggerCount());
+    }
+
+    @Test
+    public void assessPatients_shouldAssessAllPatientsWithOneCallPerService() {
+        PatientDTO other = new PatientDTO();
+        other.setId("2");
+        other.setBirthDate("1950-01-01");
+        other.setGender(GenderEnum.FEMALE);
+        patient.setId("1");
+        NoteDTO otherNote = new NoteDTO("2", "Doe", "Le patient va bien.");
+        notes.forEach(note -> note.setPatId("1"));
+
+        when(patientServiceClient.getPatientsInfo(List.of("2", "1", "404"))).thenReturn(Flux.just(patient, other));
+        when(noteServiceClient.getNotesForPatients(List.of("2", "1", "404")))
+                .thenReturn(Flux.just(notes.get(0), otherNote, notes.get(1)));
+
+        List<AssessmentResponseDTO> results = diabetesAssessmentService.assessPatients(List.of("2", "1", "2", "404"))
+                .collectList()
+                .block();
+
+        assertNotNull(results);
+        assertEquals(2, results.size());
+        assertEquals("2", results.get(0).getPatientId());
+        assertEquals(0, results.get(0).getTriggerCount());
+        assertEquals("None", results.get(0).getRisk());
+        assertEquals("1", results.get(1).getPatientId());
+        assertEquals(4, results.get(1).getTriggerCount());
+        assertEquals("In Danger", results.get(1).getRisk());
+        verify(patientServiceClient, times(1)).getPatientsInfo(anyCollection());
+        verify(noteServiceClient, times(1)).getNotesForPatients(anyCollection());
+    }
+
+    @Test
+    public void assessPatient_shouldServeCachedAssessment_untilPatientDataChanges() {
+        when(patientServiceClient.getPatientInfo("1")).thenReturn(Mono.just(patient));
+        when(noteServiceClient.getNotesForPatient("1")).thenReturn(Flux.fromIterable(notes));
+
+        diabetesAssessmentService.assessPatient("1").block();
+        diabetesAssessmentService.assessPatient("1").block();
+        verify(patientServiceClient, times(1)).getPatientInfo("1");
+
+        assessmentCache.onPatientDataChanged(new PatientDataChangedEvent("1"));
+        diabetesAssessmentService.assessPatient("1").block();
+        verify(patientServiceClient, times(2)).getPatientInfo("1");
+        verify(noteServiceClient, times(2)).getNotesForPatient("1");
+    }
+
+    @Test
+    public void assessPatients_shouldOnlyFetchPatientsMissingFromCache() {
+        patient.setId("1");
+        when(patientServiceClient.getPatientInfo("1")).thenReturn(Mono.just(patient));
+        when(noteServiceClient.getNotesForPatient("1")).thenReturn(Flux.fromIterable(notes));
+        diabetesAssessmentService.assessPatient("1").block();
+
+        PatientDTO other = new PatientDTO();
+        other.setId("2");
+        other.setBirthDate("1950-01-01");
+        other.setGender(GenderEnum.FEMALE);
+        when(patientServiceClient.getPatientsInfo(List.of("2"))).thenReturn(Flux.just(other));
+        when(noteServiceClient.getNotesForPatients(List.of("2"))).thenReturn(Flux.empty());
+
+        List<AssessmentResponseDTO> results = diabetesAssessmentService.assessPatients(List.of("1", "2")).collectList().block();
+
+        assertNotNull(results);
+        assertEquals(List.of("1", "2"), results.stream().map(AssessmentResponseDTO::getPatientId).toList());
+        verify(patientServiceClient, times(1)).getPatientsInfo(List.of("2"));
+    }
+
+    @Test
+    public void assessPatients_shouldNotCacheAssessment_whenPatientDataChangesWhileItIsFetched() {
+        patient.setId("1");
+        Sinks.One<PatientDTO> patientInfo = Sinks.one();
+        when(patientServiceClient.getPatientsInfo(List.of("1"))).thenReturn(patientInfo.asMono().flux());
+        when(noteServiceClient.getNotesForPatients(List.of("1"))).thenReturn(Flux.empty());
+
+        Mono<List<AssessmentResponseDTO>> batch = diabetesAssessmentService.assessPatients(List.of("1")).collectList().cache();
+        batch.subscribe();
+        assessmentCache.onPatientDataChanged(new PatientDataChangedEvent("1"));
+        patientInfo.tryEmitValue(patient);
+        assertEquals(1, batch.block().size());
+
+        when(patientServiceClient.getPatientInfo("1")).thenReturn(Mono.just(patient));
+        when(noteServiceClient.getNotesForPatient("1")).thenReturn(Flux.fromIterable(notes));
+        diabetesAssessmentService.assessPatient("1").block();
+        verify(patientServiceClient, times(1)).getPatientInfo("1");
+    }
+
+    @Test
+    public void assessPatient_shouldShareAssessmentBeingFetchedByBatch() {
+        patient.setId("1");
+        Sinks.One<PatientDTO> patientInfo = Sinks.one();
+        when(patientServiceClient.getPatientsInfo(List.of("1"))).thenReturn(patientInfo.asMono().flux());
+        when(noteServiceClient.getNotesForPatients(List.of("1"))).thenReturn(Flux.empty());
+
+        Mono<List<AssessmentResponseDTO>> batch = diabetesAssessmentService.assessPatients(List.of("1")).collectList().cache();
+        batch.subscribe();
+        Mono<AssessmentResponseDTO> single = diabetesAssessmentService.assessPatient("1").cache();
+        single.subscribe();
+        patientInfo.tryEmitValue(patient);
+
+        assertEquals(batch.block().getFirst(), single.block());
+        verify(patientServiceClient, never()).getPatientInfo(anyString());
+    }
+
+    @Test
+    public void defaultTriggerDictionary_shouldHaveSameVersionAsNoteServiceDictionary() {
+        assertEquals("287edd355d6d4aed", triggerDictionaryProvider.current().getVersion());
+    }
+
+    @Test
+    public void assessPatient_shouldUseTriggerBitmap_whenBuiltFromSameDictionary() {
+        String version = triggerDictionaryProvider.current().getVersion();
+        when(patientServiceClient.getPatientInfo("1")).thenReturn(Mono.just(patient));
+        when(noteServiceClient.getTriggersForPatient("1", triggerDictionaryProvider.current().getTerms()))
+                .thenReturn(Mono.just(new PatientTriggersDTO("1", version, 0b1011L)));
+
+        AssessmentResponseDTO result = diabetesAssessmentService.assessPatient("1").block();
+
+        assertNotNull(result);
+        assertEquals(3, result.getTriggerCount());
+        verify(noteServiceClient, never()).getNotesForPatient(anyString());
+    }
+
+    @Test
+    public void assessPatient_shouldScanNotes_whenTriggerBitmapBuiltFromOtherDictionary() {
+        when(patientServiceClient.getPatientInfo("1")).thenReturn(Mono.just(patient));
+        when(noteServiceClient.getTriggersForPatient("1", triggerDictionaryProvider.current().getTerms()))
+                .thenReturn(Mono.just(new PatientTriggersDTO("1", "0000000000000000", 0b1L)));
+        when(noteServiceClient.getNotesForPatient("1")).thenReturn(Flux.fromIterable(notes));
+
+        AssessmentResponseDTO result = diabetesAssessmentService.assessPatient("1").block();
+
+        assertNotNull(result);
+        assertEquals(4, result.getTriggerCount());
+        verify(noteServiceClient, times(1)).getNotesForPatient("1");
+    }
+
+    @Test
+    public void assessPatient_shouldDetectAllMatches() {
+        NoteDTO note = new NoteDTO();
+        note.setNote("Hémoglobine A1C détectée. fumeuse et taille faible. Cholestérol élevé.");
+        when(patientServiceClient.getPatientInfo("1")).thenReturn(Mono.just(patient));
+        when(noteServiceClient.getNotesForPatient("1")).thenReturn(Flux.just(note));
+
+        AssessmentResponseDTO result = diabetesAssessmentService.assessPatient("1").block();
+
+        assertNotNull(result);
+        assertEquals(4, result.getTriggerCount());
+    }
+
+    // Behaviour change: triggers are matched within each note, the way note-service builds its bitmaps. Notes used
+    // to be joined with a space, and "hémoglobine" ending one note with "A1C" starting the next counted as a trigger.
+    @Test
+    public void assessPatient_shouldNotMatchATrigger_acrossNoteBoundaries() {
+        NoteDTO first = new NoteDTO();
+        first.setNote("Résultat : hémoglobine");
+        NoteDTO second = new NoteDTO();
+        second.setNote("A1C élevée.");
+        when(patientServiceClient.getPatientInfo("1")).thenReturn(Mono.just(patient));
+        when(noteServiceClient.getNotesForPatient("1")).thenReturn(Flux.just(first, second));
+
+        AssessmentResponseDTO result = diabetesAssessmentService.assessPatient("1").block();
+
+        assertNotNull(result);
+        assertEquals(0, result.getTriggerCount());
+    }
+
+    @Test
+    public void assessments_shouldCountTheSame_whenATriggerStraddlesTwoNotes() {
+        String version = triggerDictionaryProvider.current().getVersion();
+        patient.setId("1");
+        NoteDTO first = new NoteDTO("1", "Doe", "Résultat : hémoglobine");
+        NoteDTO second = new NoteDTO("1", "Doe", "A1C élevée, fumeur.");
+        // note-service ORs the masks of each note: only "fume" is found.
+        long noteServiceMask = 1L << triggerDictionaryProvider.current().getTerms().indexOf("fume");
+
+        when(patientServiceClient.getPatientInfo("1")).thenReturn(Mono.just(patient));
+        when(noteServiceClient.getTriggersForPatient("1", triggerDictionaryProvider.current().getTerms()))
+                .thenReturn(Mono.just(new PatientTriggersDTO("1", version, noteServiceMask)));
+        int fromBitmap = diabetesAssessmentService.assessPatient("1").block().getTriggerCount();
+
+        assessmentCache.onPatientDataChanged(new PatientDataChangedEvent("1"));
+        when(noteServiceClient.getTriggersForPatient("1", triggerDictionaryProvider.current().getTerms())).thenReturn(Mono.empty());
+        when(noteServiceClient.getNotesForPatient("1")).thenReturn(Flux.just(first, second));
+        int fromScan = diabetesAssessmentService.assessPatient("1").block().getTriggerCount();
+
+        assessmentCache.onPatientDataChanged(new PatientDataChangedEvent("1"));
+        when(patientServiceClient.getPatientsInfo(List.of("1"))).thenReturn(Flux.just(patient));
+        when(noteServiceClient.getNotesForPatients(List.of("1"))).thenReturn(Flux.just(first, second));
+        int fromBatchScan = diabetesAssessmentService.assessPatients(List.of("1")).blockFirst().getTriggerCount();
+
+        assertEquals(1, fromBitmap);
+        assertEquals(fromBitmap, fromScan);
+        assertEquals(fromBitmap, fromBatchScan);
+    }
+
+    @Test
+    public void assessPatient_shouldCancelNotes_onceEveryTriggerIsSeen() {
+        NoteDTO allTriggers = new NoteDTO();
+        allTriggers.setNote("Hémoglobine A1C, microalbumine, taille, poids, fumeur, anormal, cholestérol, "
+                + "vertige, rechute, réaction, anticorps.");
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Flux<NoteDTO> endless = Flux.just(allTriggers).concatWith(Flux.<NoteDTO>never())
+                .doOnCancel(() -> cancelled.set(true));
+        when(patientServiceClient.getPatientInfo("1")).thenReturn(Mono.just(patient));
+        when(noteServiceClient.getNotesForPatient("1")).thenReturn(endless);
 
-        assertEquals("reaction aux medicaments", normalized);
+        AssessmentResponseDTO result = diabetesAssessmentService.assessPatient("1").block(Duration.ofSeconds(5));
+
+        assertNotNull(result);
+        assertEquals(11, result.getTriggerCount());
+        assertTrue(cancelled.get());
     }
 
     @Test
-    public void countTrigger_shouldDetectAllMatches() throws Exception {
-        String note = "Hémoglobine A1C détectée. fumeuse et taille faible. Cholestérol élevé.";
-        String normalized = (String) normalizeText.invoke(diabetesAssessmentService, note);
+    public void assessPatient_shouldCancelNoteDownload_onceEveryTriggerIsSeen() throws InterruptedException {
+        AtomicInteger sent = new AtomicInteger();
+        CountDownLatch cancelled = new CountDownLatch(1);
+        try (StubHttpServer noteService = StubHttpServer.start()) {
+            noteService.on("/api/note/1/texts", StubResponse.streamed("application/json", LongNoteHistory.json(
+                    "Hémoglobine A1C, microalbumine, taille, poids, fumeur, anormal, cholestérol, vertige, rechute, "
+                            + "réaction, anticorps.", sent)
+                    .doOnCancel(cancelled::countDown)));
+            DiabetesAssessmentService service = new DiabetesAssessmentService(
+                    new NoteServiceClient(noteService.baseUrl() + "/api/note", TestResilience.of(Duration.ofSeconds(5)),
+                            WebClient.builder()),
+                    patientServiceClient, assessmentCache, triggerDictionaryProvider);
+            when(patientServiceClient.getPatientInfo("1")).thenReturn(Mono.just(patient));
 
-        int count = (int) countTrigger.invoke(diabetesAssessmentService, normalized);
+            AssessmentResponseDTO result = service.assessPatient("1").block();
 
-        assertEquals(4, count);
+            assertNotNull(result);
+            assertEquals(11, result.getTriggerCount());
+            assertTrue(cancelled.await(5, TimeUnit.SECONDS), "note-service should see the download cancelled");
+            assertTrue(sent.get() < LongNoteHistory.NOTES, sent.get() + " notes sent");
+        }
     }
 }
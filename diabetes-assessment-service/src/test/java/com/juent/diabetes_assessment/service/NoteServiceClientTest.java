@@ -0,0 +1,113 @@
+package com.juent.diabetes_assessment.service;
+
+import com.juent.diabetes_assessment.DTO.NoteDTO;
+import com.juent.diabetes_assessment.DTO.PatientTriggersDTO;
+import com.juent.diabetes_assessment.services.NoteServiceClient;
+import com.juent.diabetes_assessment.support.LongNoteHistory;
+import com.juent.diabetes_assessment.support.StubHttpServer;
+import com.juent.diabetes_assessment.support.StubHttpServer.StubResponse;
+import com.juent.diabetes_assessment.support.TestResilience;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NoteServiceClientTest {
+
+    private StubHttpServer noteService;
+    private NoteServiceClient noteServiceClient;
+
+    @BeforeEach
+    public void init() {
+        noteService = StubHttpServer.start();
+        noteServiceClient = new NoteServiceClient(noteService.baseUrl() + "/api/note", TestResilience.of(Duration.ofSeconds(5)),
+                WebClient.builder());
+    }
+
+    @AfterEach
+    public void close() {
+        noteService.close();
+    }
+
+    @Test
+    public void getTriggersForPatient_shouldPostTermsAndReturnTriggersMatchedByNoteService() {
+        noteService.on("/api/note/1/triggers", StubResponse.json("""
+                {"patId":"1","dictionaryVersion":"v1","triggerMask":5,"triggers":["taille","fume"]}
+                """));
+
+        PatientTriggersDTO triggers = noteServiceClient.getTriggersForPatient("1", List.of("taille", "poids", "fume")).block();
+
+        assertNotNull(triggers);
+        assertEquals("v1", triggers.getDictionaryVersion());
+        assertEquals(5L, triggers.getTriggerMask());
+        assertEquals("[\"taille\",\"poids\",\"fume\"]", noteService.lastRequestBody("/api/note/1/triggers"));
+    }
+
+    @Test
+    public void getTriggersForPatient_shouldBeEmpty_whenNoteServiceOnlyMatchesItsOwnDictionary() {
+        noteService.on("/api/note/1/triggers", StubResponse.status(405));
+
+        assertNull(noteServiceClient.getTriggersForPatient("1", List.of("taille")).block());
+    }
+
+    @Test
+    public void getTriggersForPatient_shouldBeEmpty_whenNoteServiceRejectsTheTerms() {
+        noteService.on("/api/note/1/triggers", StubResponse.status(400));
+
+        assertNull(noteServiceClient.getTriggersForPatient("1", List.of("taille")).block());
+        assertEquals(1, noteService.hits("/api/note/1/triggers"));
+    }
+
+    @Test
+    public void getTriggersForPatient_shouldBeEmpty_whenNoteServiceDoesNotExposeTriggers() {
+        assertNull(noteServiceClient.getTriggersForPatient("1", List.of("taille")).block());
+    }
+
+    @Test
+    public void getNotesForPatient_shouldStopCallingNoteService_whenCircuitBreakerOpens() {
+        noteService.on("/api/note/1/texts", StubResponse.status(500));
+
+        int calls = 0;
+        boolean open = false;
+        while (!open && calls++ < 10) {
+            try {
+                noteServiceClient.getNotesForPatient("1").collectList().block();
+                fail("note-service answers 500");
+            } catch (CallNotPermittedException e) {
+                open = true;
+            } catch (WebClientResponseException.InternalServerError e) {
+                // recorded by the circuit breaker
+            }
+        }
+        assertTrue(open);
+
+        int hits = noteService.hits("/api/note/1/texts");
+        assertThrows(CallNotPermittedException.class, () -> noteServiceClient.getNotesForPatient("1").collectList().block());
+        assertEquals(hits, noteService.hits("/api/note/1/texts"));
+    }
+
+    @Test
+    public void getNotesForPatient_shouldStreamNotes_andCancelTheDownloadOnceEnoughAreRead() throws InterruptedException {
+        AtomicInteger sent = new AtomicInteger();
+        CountDownLatch cancelled = new CountDownLatch(1);
+        noteService.on("/api/note/1/texts", StubResponse.streamed("application/json",
+                LongNoteHistory.json("Première visite.", sent).doOnCancel(cancelled::countDown)));
+
+        List<NoteDTO> notes = noteServiceClient.getNotesForPatient("1").take(10).collectList().block();
+
+        assertNotNull(notes);
+        assertEquals(10, notes.size());
+        assertTrue(cancelled.await(5, TimeUnit.SECONDS), "note-service should see the download cancelled");
+        assertTrue(sent.get() < LongNoteHistory.NOTES, sent.get() + " notes sent");
+    }
+}
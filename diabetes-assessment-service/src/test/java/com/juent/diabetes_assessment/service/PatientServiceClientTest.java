@@ -0,0 +1,115 @@
+package com.juent.diabetes_assessment.service;
+
+import com.juent.diabetes_assessment.DTO.PatientDTO;
+import com.juent.diabetes_assessment.services.PatientServiceClient;
+import com.juent.diabetes_assessment.support.StubHttpServer;
+import com.juent.diabetes_assessment.support.StubHttpServer.StubResponse;
+import com.juent.diabetes_assessment.support.TestResilience;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Exceptions;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PatientServiceClientTest {
+
+    private static final String PATIENT = """
+            {"firstName":"John","lastName":"Doe","birthDate":"1968-06-22","gender":"MALE"}
+            """;
+
+    private StubHttpServer patientService;
+    private PatientServiceClient patientServiceClient;
+
+    @BeforeEach
+    public void init() {
+        patientService = StubHttpServer.start();
+        patientServiceClient = new PatientServiceClient(patientService.baseUrl() + "/api/patient", 100,
+                TestResilience.of(Duration.ofMillis(500)), WebClient.builder());
+    }
+
+    @AfterEach
+    public void close() {
+        patientService.close();
+    }
+
+    @Test
+    public void getPatientInfo_shouldReuseLastCopy_whenPatientServiceAnswersNotModified() {
+        patientService.on("/api/patient/1",
+                StubResponse.json(PATIENT).withHeader(HttpHeaders.ETAG, "\"v1\""),
+                StubResponse.status(304).withHeader(HttpHeaders.ETAG, "\"v1\""));
+
+        PatientDTO first = patientServiceClient.getPatientInfo("1").block();
+        assertNull(patientService.lastRequestHeader("/api/patient/1", HttpHeaders.IF_NONE_MATCH));
+
+        PatientDTO second = patientServiceClient.getPatientInfo("1").block();
+
+        assertEquals("\"v1\"", patientService.lastRequestHeader("/api/patient/1", HttpHeaders.IF_NONE_MATCH));
+        assertNotNull(second);
+        assertEquals(first, second);
+        assertEquals("Doe", second.getLastName());
+    }
+
+    @Test
+    public void getPatientInfo_shouldReplaceLastCopy_whenPatientChanged() {
+        patientService.on("/api/patient/1",
+                StubResponse.json(PATIENT).withHeader(HttpHeaders.ETAG, "\"v1\""),
+                StubResponse.json(PATIENT.replace("Doe", "Smith")).withHeader(HttpHeaders.ETAG, "\"v2\""),
+                StubResponse.status(304));
+
+        patientServiceClient.getPatientInfo("1").block();
+        assertEquals("Smith", patientServiceClient.getPatientInfo("1").block().getLastName());
+        assertEquals("Smith", patientServiceClient.getPatientInfo("1").block().getLastName());
+        assertEquals("\"v2\"", patientService.lastRequestHeader("/api/patient/1", HttpHeaders.IF_NONE_MATCH));
+    }
+
+    @Test
+    public void getPatientInfo_shouldFail_whenPatientIsUnknown() {
+        assertThrows(WebClientResponseException.NotFound.class, () -> patientServiceClient.getPatientInfo("1").block());
+    }
+
+    @Test
+    public void getPatientInfo_shouldRetry_whenPatientServiceIsUnavailable() {
+        patientService.on("/api/patient/1", StubResponse.status(503), StubResponse.json(PATIENT));
+
+        PatientDTO patient = patientServiceClient.getPatientInfo("1").block();
+
+        assertNotNull(patient);
+        assertEquals("Doe", patient.getLastName());
+        assertEquals(2, patientService.hits("/api/patient/1"));
+    }
+
+    @Test
+    public void getPatientInfo_shouldNotRetry_whenPatientIsUnknown() {
+        patientService.on("/api/patient/1", StubResponse.status(404));
+
+        assertThrows(WebClientResponseException.NotFound.class, () -> patientServiceClient.getPatientInfo("1").block());
+        assertEquals(1, patientService.hits("/api/patient/1"));
+    }
+
+    @Test
+    public void getPatientInfo_shouldTimeOutEachAttempt_whenPatientServiceIsSlow() {
+        patientService.on("/api/patient/1", StubResponse.json(PATIENT).delayedBy(Duration.ofSeconds(2)));
+
+        RuntimeException failure = assertThrows(RuntimeException.class,
+                () -> patientServiceClient.getPatientInfo("1").block());
+
+        assertInstanceOf(TimeoutException.class, Exceptions.unwrap(failure));
+        assertEquals(3, patientService.hits("/api/patient/1"));
+    }
+
+    @Test
+    public void getPatientsInfo_shouldRetryWholeBatch_whenPatientServiceFails() {
+        patientService.on("/api/patient/batch", StubResponse.status(502), StubResponse.json("[" + PATIENT + "]"));
+
+        assertEquals(1, patientServiceClient.getPatientsInfo(List.of("1")).collectList().block().size());
+        assertEquals(2, patientService.hits("/api/patient/batch"));
+    }
+}
@@ -0,0 +1,31 @@
+package com.juent.diabetes_assessment.support;
+
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Notes of a patient with a long history, served by {@link StubHttpServer} as a streamed JSON array: a first note
+ * followed by {@link #NOTES} notes of about 1 KB without any trigger, some 50 MB in all, far beyond what a client
+ * buffers in memory.
+ */
+public final class LongNoteHistory {
+
+    public static final int NOTES = 50_000;
+
+    private LongNoteHistory() {
+    }
+
+    /**
+     * @param sent counts the chunks written, one per note
+     */
+    public static Flux<byte[]> json(String firstNote, AtomicInteger sent) {
+        String text = "Le patient se sent bien. ".repeat(40);
+        return Flux.range(0, NOTES)
+                .map(i -> (i == 0 ? "[{\"note\":\"" + firstNote + "\"}" : "") + ",{\"note\":\"" + text + i + "\"}")
+                .concatWith(Flux.just("]"))
+                .doOnNext(chunk -> sent.incrementAndGet())
+                .map(chunk -> chunk.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,122 @@
+package com.juent.diabetes_assessment.support;
+
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local HTTP server standing in for patient-service and note-service in tests and benchmarks.
+ * Each path answers its scripted responses in order, the last one being repeated, after an optional delay.
+ * A streamed response is written chunk by chunk as the connection accepts it.
+ */
+public final class StubHttpServer implements AutoCloseable {
+
+    private final Map<String, List<StubResponse>> responses = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> hits = new ConcurrentHashMap<>();
+    private final Map<String, HttpHeaders> lastRequestHeaders = new ConcurrentHashMap<>();
+    private final Map<String, String> lastRequestBodies = new ConcurrentHashMap<>();
+    private final DisposableServer server;
+
+    private StubHttpServer() {
+        this.server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .handle(this::handle)
+                .bindNow();
+    }
+
+    public static StubHttpServer start() {
+        return new StubHttpServer();
+    }
+
+    public StubHttpServer on(String path, StubResponse... scripted) {
+        responses.put(path, List.of(scripted));
+        hits.put(path, new AtomicInteger());
+        return this;
+    }
+
+    public int hits(String path) {
+        AtomicInteger count = hits.get(path);
+        return count == null ? 0 : count.get();
+    }
+
+    public String lastRequestHeader(String path, String name) {
+        HttpHeaders headers = lastRequestHeaders.get(path);
+        return headers == null ? null : headers.get(name);
+    }
+
+    public String lastRequestBody(String path) {
+        return lastRequestBodies.get(path);
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.port();
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+
+    private Mono<Void> handle(HttpServerRequest request, HttpServerResponse response) {
+        String path = request.fullPath();
+        List<StubResponse> scripted = responses.get(path);
+        if (scripted == null) {
+            return response.status(HttpResponseStatus.NOT_FOUND).send();
+        }
+
+        lastRequestHeaders.put(path, request.requestHeaders().copy());
+        int hit = hits.get(path).getAndIncrement();
+        StubResponse stub = scripted.get(Math.min(hit, scripted.size() - 1));
+        return request.receive().aggregate().asString(StandardCharsets.UTF_8)
+                .doOnNext(body -> lastRequestBodies.put(path, body))
+                .then(Mono.delay(stub.delay()))
+                .then(response.status(stub.status())
+                        .headers(stub.headers())
+                        .header(HttpHeaderNames.CONTENT_TYPE, stub.contentType())
+                        .sendByteArray(stub.stream() != null ? stub.stream() : Mono.just(stub.body()))
+                        .then());
+    }
+
+    public record StubResponse(int status, String contentType, byte[] body, Flux<byte[]> stream, Duration delay,
+                               HttpHeaders headers) {
+
+        public static StubResponse json(String body) {
+            return of("application/json", body.getBytes(StandardCharsets.UTF_8));
+        }
+
+        public static StubResponse of(String contentType, byte[] body) {
+            return new StubResponse(200, contentType, body, null, Duration.ZERO, new DefaultHttpHeaders());
+        }
+
+        public static StubResponse streamed(String contentType, Flux<byte[]> chunks) {
+            return new StubResponse(200, contentType, null, chunks, Duration.ZERO, new DefaultHttpHeaders());
+        }
+
+        public static StubResponse status(int status) {
+            return new StubResponse(status, "application/json", new byte[0], null, Duration.ZERO, new DefaultHttpHeaders());
+        }
+
+        public StubResponse delayedBy(Duration delay) {
+            return new StubResponse(status, contentType, body, stream, delay, headers);
+        }
+
+        public StubResponse withHeader(String name, String value) {
+            return new StubResponse(status, contentType, body, stream, delay, headers.copy().set(name, value));
+        }
+    }
+}
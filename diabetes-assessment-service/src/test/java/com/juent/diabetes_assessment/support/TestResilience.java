@@ -0,0 +1,46 @@
+package com.juent.diabetes_assessment.support;
+
+import com.juent.diabetes_assessment.resilience.DownstreamResilience;
+import com.juent.diabetes_assessment.resilience.TransientFailure;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.core.IntervalFunction;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+
+import java.time.Duration;
+
+/**
+ * Resilience of a downstream client configured like {@code application.properties}, with short waits.
+ */
+public final class TestResilience {
+
+    private TestResilience() {
+    }
+
+    public static DownstreamResilience of(Duration timeout) {
+        return of(timeout, 3, 500);
+    }
+
+    public static DownstreamResilience of(Duration timeout, int maxAttempts, int maxConcurrentCalls) {
+        return DownstreamResilience.of("test", timeout,
+                BulkheadRegistry.of(BulkheadConfig.custom()
+                        .maxConcurrentCalls(maxConcurrentCalls)
+                        .maxWaitDuration(Duration.ZERO)
+                        .build()),
+                CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                        .slidingWindowSize(20)
+                        .minimumNumberOfCalls(10)
+                        .failureRateThreshold(50)
+                        .waitDurationInOpenState(Duration.ofMinutes(1))
+                        .recordException(new TransientFailure())
+                        .build()),
+                RetryRegistry.of(RetryConfig.custom()
+                        .maxAttempts(maxAttempts)
+                        .intervalFunction(IntervalFunction.ofExponentialRandomBackoff(Duration.ofMillis(10), 2, 0.5))
+                        .retryOnException(new TransientFailure())
+                        .build()));
+    }
+}
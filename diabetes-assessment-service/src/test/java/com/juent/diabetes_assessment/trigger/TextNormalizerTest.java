@@ -0,0 +1,83 @@
+package com.juent.diabetes_assessment.trigger;
+
+import org.junit.jupiter.api.Test;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TextNormalizerTest {
+
+    @Test
+    public void normalize_shouldFoldAccentsCaseAndPunctuation() {
+        assertEquals("reaction aux medicaments", TextNormalizer.normalize("   RéAction  aux MÉdIcaments!!!  "));
+        assertEquals("hemoglobine a1c detectee", TextNormalizer.normalize("Hémoglobine A1C\tdétectée."));
+    }
+
+    @Test
+    public void normalize_shouldReturnEmptyString_whenNull() {
+        assertEquals("", TextNormalizer.normalize(null));
+    }
+
+    @Test
+    public void normalize_shouldAppendToReusedBuffer() {
+        StringBuilder buffer = new StringBuilder("deja ");
+
+        TextNormalizer.normalize("  Vertige ", buffer);
+
+        assertEquals("deja vertige", buffer.toString());
+    }
+
+    @Test
+    public void normalize_shouldMatchRegexChain_forEveryBmpCharacter() {
+        for (char c = 0; c < Character.MAX_VALUE; c++) {
+            String text = "a " + c + "b" + c + " " + c;
+            assertEquals(legacyNormalize(text), TextNormalizer.normalize(text), "char " + (int) c);
+        }
+    }
+
+    @Test
+    public void normalize_shouldMatchRegexChain_forRandomText() {
+        Random random = new Random(7);
+        String alphabet = "aAeEéÉèçÇœŒßİıΣσς ,.;!?'’«»-\t\n ́’012€";
+
+        for (int run = 0; run < 5_000; run++) {
+            StringBuilder text = new StringBuilder();
+            int length = random.nextInt(40);
+            for (int i = 0; i < length; i++) {
+                text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            if (random.nextInt(20) == 0) {
+                text.appendCodePoint(0x1F600);
+            }
+
+            assertEquals(legacyNormalize(text.toString()), TextNormalizer.normalize(text.toString()), text.toString());
+        }
+    }
+
+    @Test
+    public void normalize_shouldMatchRegexChain_withTurkishDefaultLocale() {
+        Locale previous = Locale.getDefault();
+        try {
+            Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+            String text = "DIABÈTE İnsülin Işık";
+
+            assertEquals(legacyNormalize(text), TextNormalizer.normalize(text));
+        } finally {
+            Locale.setDefault(previous);
+        }
+    }
+
+    private static String legacyNormalize(String text) {
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{InCombiningDiacriticalMarks}+", "");
+
+        return normalized
+                .toLowerCase()
+                .replaceAll("[^\\p{L}\\p{N}\\s]", "")
+                .replaceAll("\\s+", " ")
+                .strip();
+    }
+}
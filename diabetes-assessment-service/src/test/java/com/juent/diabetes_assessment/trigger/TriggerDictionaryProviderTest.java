@@ -0,0 +1,106 @@
+package com.juent.diabetes_assessment.trigger;
+
+import com.juent.diabetes_assessment.event.TriggerDictionaryChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TriggerDictionaryProviderTest {
+
+    @TempDir
+    private Path directory;
+
+    private final List<Object> events = new ArrayList<>();
+
+    @Test
+    public void current_shouldLoadTermsSkippingBlankAndCommentLines() throws IOException {
+        Path file = write("# comment\n\nPoids\n  Vertige  \n");
+
+        TriggerDictionaryProvider provider = new TriggerDictionaryProvider(new FileSystemResource(file), events::add);
+
+        assertEquals(List.of("poids", "vertige"), provider.current().getTerms());
+    }
+
+    @Test
+    public void reloadIfChanged_shouldSwapDictionaryAndPublishEvent_whenFileChanges() throws IOException {
+        Path file = write("poids\n");
+        TriggerDictionaryProvider provider = new TriggerDictionaryProvider(new FileSystemResource(file), events::add);
+        TriggerDictionary before = provider.current();
+
+        rewrite(file, "poids\nvertige\n");
+        provider.reloadIfChanged();
+
+        assertEquals(List.of("poids", "vertige"), provider.current().getTerms());
+        assertEquals(List.of(new TriggerDictionaryChangedEvent(provider.current().getVersion())), events);
+        assertEquals(1, before.getMatcher().countDistinct("poids et vertige"));
+    }
+
+    @Test
+    public void reloadIfChanged_shouldDoNothing_whenFileIsUnchanged() throws IOException {
+        Path file = write("poids\n");
+        TriggerDictionaryProvider provider = new TriggerDictionaryProvider(new FileSystemResource(file), events::add);
+        TriggerDictionary before = provider.current();
+
+        provider.reloadIfChanged();
+
+        assertSame(before, provider.current());
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    public void reloadIfChanged_shouldKeepCurrentDictionary_whenFileHoldsNoTerm() throws IOException {
+        Path file = write("poids\n");
+        TriggerDictionaryProvider provider = new TriggerDictionaryProvider(new FileSystemResource(file), events::add);
+        TriggerDictionary before = provider.current();
+
+        rewrite(file, "# nothing left\n");
+        provider.reloadIfChanged();
+
+        assertSame(before, provider.current());
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    public void reloadIfChanged_shouldKeepCurrentDictionary_whenFileHoldsMoreThan64Terms() throws IOException {
+        Path file = write("poids\n");
+        TriggerDictionaryProvider provider = new TriggerDictionaryProvider(new FileSystemResource(file), events::add);
+        TriggerDictionary before = provider.current();
+
+        StringBuilder terms = new StringBuilder();
+        for (int i = 0; i < 65; i++) {
+            terms.append("terme").append(i).append('\n');
+        }
+        rewrite(file, terms.toString());
+        provider.reloadIfChanged();
+
+        assertSame(before, provider.current());
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    public void constructor_shouldFail_whenDictionaryHoldsNoTerm() throws IOException {
+        Path file = write("\n");
+
+        assertThrows(IllegalArgumentException.class, () -> new TriggerDictionaryProvider(new FileSystemResource(file), events::add));
+    }
+
+    private Path write(String content) throws IOException {
+        return Files.writeString(directory.resolve("triggers.txt"), content);
+    }
+
+    private static void rewrite(Path file, String content) throws IOException {
+        Instant previous = Files.getLastModifiedTime(file).toInstant();
+        Files.writeString(file, content);
+        Files.setLastModifiedTime(file, FileTime.from(previous.plusSeconds(1)));
+    }
+}
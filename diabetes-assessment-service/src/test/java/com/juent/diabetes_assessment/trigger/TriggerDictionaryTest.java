@@ -0,0 +1,35 @@
+package com.juent.diabetes_assessment.trigger;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TriggerDictionaryTest {
+
+    @Test
+    public void of_shouldNormalizeTermsBeforeCompiling() {
+        TriggerDictionary dictionary = TriggerDictionary.of(List.of("Hémoglobine A1C", "Cholestérol"));
+
+        assertEquals(List.of("hemoglobine a1c", "cholesterol"), dictionary.getTerms());
+        assertEquals(2, dictionary.getMatcher().countDistinct("hemoglobine a1c et cholesterol"));
+    }
+
+    @Test
+    public void of_shouldRejectMoreTermsThanTriggerMaskBits() {
+        List<String> terms = IntStream.range(0, 65).mapToObj(i -> "terme" + i).toList();
+
+        assertEquals(64, TriggerDictionary.of(terms.subList(0, 64)).getTerms().size());
+        assertThrows(IllegalArgumentException.class, () -> TriggerDictionary.of(terms));
+    }
+
+    @Test
+    public void getVersion_shouldDependOnTermOrder() {
+        assertEquals(TriggerDictionary.of(List.of("taille", "poids")).getVersion(),
+                TriggerDictionary.of(List.of("Taille", "POIDS")).getVersion());
+        assertNotEquals(TriggerDictionary.of(List.of("taille", "poids")).getVersion(),
+                TriggerDictionary.of(List.of("poids", "taille")).getVersion());
+    }
+}
@@ -0,0 +1,190 @@
+package com.juent.gateway.configuration.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.security.Principal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process limits per principal and per route, configured on the route as
+ * {@code RequestLimit=<replenishRate>,<burstCapacity>,<maxInFlight>}: a token bucket refilled with
+ * {@code replenishRate} tokens per second up to {@code burstCapacity}, and at most {@code maxInFlight} requests
+ * forwarded at once. Requests over either limit are answered 429 with a {@code Retry-After} header.
+ * Limiters of principals idle for longer than {@code gateway.request-limit.idle-expiry} are dropped.
+ */
+@Component
+public class RequestLimitGatewayFilterFactory extends AbstractGatewayFilterFactory<RequestLimitGatewayFilterFactory.Config> {
+    private static final Logger logger = LoggerFactory.getLogger(RequestLimitGatewayFilterFactory.class);
+
+    private static final String ANONYMOUS = "anonymous";
+
+    private final Cache<LimitKey, Limiter> limiters;
+    private final Map<String, AtomicInteger> inFlightByRoute = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public RequestLimitGatewayFilterFactory(@Value("${gateway.request-limit.idle-expiry}") Duration idleExpiry,
+                                            MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.limiters = Caffeine.newBuilder()
+                .expireAfterAccess(idleExpiry)
+                .build();
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("replenishRate", "burstCapacity", "maxInFlight");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+            String routeId = route == null ? "unknown" : route.getId();
+
+            return exchange.getPrincipal()
+                    .map(Principal::getName)
+                    .defaultIfEmpty(ANONYMOUS)
+                    .flatMap(principal -> {
+                        Limiter limiter = limiters.get(new LimitKey(routeId, principal), key -> new Limiter(config));
+                        if (!limiter.tryAcquire()) {
+                            return reject(exchange, routeId, principal, "concurrency", 1);
+                        }
+                        long waitNanos = limiter.tryConsume(System.nanoTime());
+                        if (waitNanos > 0) {
+                            limiter.release();
+                            return reject(exchange, routeId, principal, "rate", secondsRoundedUp(waitNanos));
+                        }
+
+                        AtomicInteger inFlight = inFlightOf(routeId);
+                        inFlight.incrementAndGet();
+                        return chain.filter(exchange).doFinally(signal -> {
+                            inFlight.decrementAndGet();
+                            limiter.release();
+                        });
+                    });
+        };
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange, String routeId, String principal, String reason,
+                              long retryAfterSeconds) {
+        logger.debug("rejecting request of {} on route {}: {} limit reached", principal, routeId, reason);
+        meterRegistry.counter("gateway.requests.limited", "route", routeId, "reason", reason).increment();
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        return response.setComplete();
+    }
+
+    private static long secondsRoundedUp(long nanos) {
+        long nanosPerSecond = TimeUnit.SECONDS.toNanos(1);
+        return Math.max(1, (nanos + nanosPerSecond - 1) / nanosPerSecond);
+    }
+
+    private AtomicInteger inFlightOf(String routeId) {
+        return inFlightByRoute.computeIfAbsent(routeId, id ->
+                meterRegistry.gauge("gateway.requests.in.flight", Tags.of("route", id), new AtomicInteger()));
+    }
+
+    public static class Config {
+        private double replenishRate;
+        private int burstCapacity;
+        private int maxInFlight;
+
+        public double getReplenishRate() {
+            return replenishRate;
+        }
+
+        public Config setReplenishRate(double replenishRate) {
+            this.replenishRate = replenishRate;
+            return this;
+        }
+
+        public int getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public Config setBurstCapacity(int burstCapacity) {
+            this.burstCapacity = burstCapacity;
+            return this;
+        }
+
+        public int getMaxInFlight() {
+            return maxInFlight;
+        }
+
+        public Config setMaxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+            return this;
+        }
+    }
+
+    private record LimitKey(String routeId, String principal) {
+    }
+
+    /**
+     * Token bucket and in-flight counter of one principal on one route.
+     */
+    static final class Limiter {
+        private final double capacity;
+        private final double tokensPerNano;
+        private final int maxInFlight;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private double tokens;
+        private long refilledAt;
+
+        Limiter(Config config) {
+            this.capacity = config.getBurstCapacity();
+            this.tokensPerNano = config.getReplenishRate() / TimeUnit.SECONDS.toNanos(1);
+            this.maxInFlight = config.getMaxInFlight();
+            this.tokens = capacity;
+            this.refilledAt = System.nanoTime();
+        }
+
+        /**
+         * Takes a token and returns 0, or returns the nanoseconds until one is available.
+         */
+        synchronized long tryConsume(long now) {
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+            refilledAt = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / tokensPerNano);
+        }
+
+        boolean tryAcquire() {
+            if (inFlight.incrementAndGet() > maxInFlight) {
+                inFlight.decrementAndGet();
+                return false;
+            }
+            return true;
+        }
+
+        void release() {
+            inFlight.decrementAndGet();
+        }
+    }
+}
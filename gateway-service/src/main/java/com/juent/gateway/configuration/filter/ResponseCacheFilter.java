@@ -0,0 +1,207 @@
+package com.juent.gateway.configuration.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory cache of successful GET responses, keyed by principal, URI and {@code Accept} header, bounded in
+ * entries, entry size and age.
+ * A POST, PUT or DELETE passing through the gateway invalidates every cached response of its resource
+ * ({@code /api/patient}, {@code /api/note}, ...) for all users, along with the derived resources (assessments),
+ * when it arrives and again once it completes. Responses are keyed by the resource generation seen when their
+ * request arrived, so a read racing a write is never served afterwards.
+ */
+@Component
+public class ResponseCacheFilter implements GlobalFilter, Ordered {
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCacheFilter.class);
+
+    private static final List<String> UNCACHED_HEADERS = List.of(
+            HttpHeaders.CONTENT_LENGTH, HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONNECTION, HttpHeaders.DATE);
+
+    private final Cache<CacheKey, CachedResponse> cache;
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final int maxEntryBytes;
+    private final List<String> derivedResources;
+
+    public ResponseCacheFilter(@Value("${gateway.response-cache.max-size}") long maxSize,
+                               @Value("${gateway.response-cache.max-entry-bytes}") int maxEntryBytes,
+                               @Value("${gateway.response-cache.ttl}") Duration ttl,
+                               @Value("${gateway.response-cache.derived-resources}") List<String> derivedResources,
+                               MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.maxEntryBytes = maxEntryBytes;
+        this.derivedResources = derivedResources;
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "gateway-responses");
+        Gauge.builder("gateway.response.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Share of cacheable GETs answered by the gateway response cache")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public int getOrder() {
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        HttpMethod method = exchange.getRequest().getMethod();
+        String resource = resourceOf(exchange.getRequest().getPath().value());
+
+        if (HttpMethod.POST.equals(method) || HttpMethod.PUT.equals(method) || HttpMethod.DELETE.equals(method)) {
+            invalidate(resource);
+            return chain.filter(exchange).doFinally(signal -> invalidate(resource));
+        }
+        if (!HttpMethod.GET.equals(method)) {
+            return chain.filter(exchange);
+        }
+
+        long generation = generationOf(resource).get();
+        URI uri = exchange.getRequest().getURI();
+        String pathAndQuery = uri.getRawQuery() == null ? uri.getRawPath() : uri.getRawPath() + "?" + uri.getRawQuery();
+        return exchange.getPrincipal()
+                .map(principal -> Optional.of(new CacheKey(principal.getName(), resource, generation, pathAndQuery,
+                        exchange.getRequest().getHeaders().getFirst(HttpHeaders.ACCEPT))))
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(key -> key.isPresent()
+                        ? cachedOrForwarded(exchange, chain, key.get())
+                        : chain.filter(exchange));
+    }
+
+    private Mono<Void> cachedOrForwarded(ServerWebExchange exchange, GatewayFilterChain chain, CacheKey key) {
+        CachedResponse cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return writeCached(exchange, cached);
+        }
+        ServerWebExchange caching = exchange.mutate()
+                .response(new CachingResponse(exchange.getResponse(), key))
+                .build();
+        return chain.filter(caching);
+    }
+
+    private Mono<Void> writeCached(ServerWebExchange exchange, CachedResponse cached) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.getHeaders().putAll(cached.headers());
+        String eTag = cached.headers().getETag();
+        if (eTag != null && exchange.checkNotModified(eTag)) {
+            return response.setComplete();
+        }
+        response.setStatusCode(HttpStatus.OK);
+        response.getHeaders().setContentLength(cached.body().length);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(cached.body())));
+    }
+
+    private void invalidate(String resource) {
+        generationOf(resource).incrementAndGet();
+        for (String derived : derivedResources) {
+            if (!derived.equals(resource)) {
+                generationOf(derived).incrementAndGet();
+            }
+        }
+    }
+
+    private AtomicLong generationOf(String resource) {
+        return generations.computeIfAbsent(resource, r -> new AtomicLong());
+    }
+
+    /**
+     * First two path segments, e.g. {@code /api/patient} for {@code /api/patient/42}.
+     */
+    static String resourceOf(String path) {
+        int slashes = 0;
+        for (int i = 0; i < path.length(); i++) {
+            if (path.charAt(i) == '/' && i > 0 && ++slashes == 2) {
+                return path.substring(0, i);
+            }
+        }
+        return path;
+    }
+
+    /**
+     * Copies a 200 response body as it is written, without delaying it, and caches it once complete unless it
+     * exceeds the entry size or sets a cookie. Streamed responses (written with flushes) are not cached.
+     */
+    private class CachingResponse extends ServerHttpResponseDecorator {
+        private final CacheKey key;
+
+        CachingResponse(ServerHttpResponse delegate, CacheKey key) {
+            super(delegate);
+            this.key = key;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (!HttpStatus.OK.equals(getStatusCode()) || getHeaders().containsKey(HttpHeaders.SET_COOKIE)) {
+                return super.writeWith(body);
+            }
+
+            ByteArrayOutputStream copy = new ByteArrayOutputStream();
+            boolean[] tooLarge = {false};
+            Flux<? extends DataBuffer> copied = Flux.from(body)
+                    .doOnNext(buffer -> {
+                        int length = buffer.readableByteCount();
+                        if (tooLarge[0] || copy.size() + length > maxEntryBytes) {
+                            tooLarge[0] = true;
+                            return;
+                        }
+                        byte[] bytes = new byte[length];
+                        buffer.toByteBuffer(buffer.readPosition(), ByteBuffer.wrap(bytes), 0, length);
+                        copy.writeBytes(bytes);
+                    })
+                    .doOnComplete(() -> {
+                        if (!tooLarge[0]) {
+                            HttpHeaders headers = new HttpHeaders();
+                            headers.putAll(getHeaders());
+                            UNCACHED_HEADERS.forEach(headers::remove);
+                            headers.keySet().removeIf(name -> name.regionMatches(true, 0, "Access-Control-", 0, 15));
+                            cache.put(key, new CachedResponse(HttpHeaders.readOnlyHttpHeaders(headers), copy.toByteArray()));
+                            logger.debug("cached response of {} for {}", key.uri(), key.principal());
+                        }
+                    });
+            return super.writeWith(copied);
+        }
+    }
+
+    /**
+     * Bumping the resource generation makes the entries of older generations unreachable until they expire.
+     */
+    record CacheKey(String principal, String resource, long generation, String uri, String accept) {
+    }
+
+    record CachedResponse(HttpHeaders headers, byte[] body) {
+    }
+}
@@ -0,0 +1,187 @@
+package com.juent.gateway.benchmark;
+
+import com.juent.gateway.GatewayServiceApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.LoopResources;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One user bursting GET /api/assess/{id} through the gateway with {@code clients} closed-loop connections, against a
+ * stand-in assessment service answering after {@code latencyMs}. Runs once without limits, then with
+ * {@code RequestLimit=<rate>,<burst>,<maxInFlight>}, and reports what reached the backend: requests per second and
+ * the highest number of requests it had in flight, next to the number of 429 answers.
+ * Every request targets a distinct id so that the gateway response cache does not absorb the burst.
+ * <p>
+ * Arguments, all optional: clients (200), latency in ms (50), window in s (10), rate (5), burst (10), max in flight (4).
+ */
+public class RequestLimitLoadBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        Duration latency = Duration.ofMillis(args.length > 1 ? Long.parseLong(args[1]) : 50);
+        Duration window = Duration.ofSeconds(args.length > 2 ? Long.parseLong(args[2]) : 10);
+        String rate = args.length > 3 ? args[3] : "5";
+        String burst = args.length > 4 ? args[4] : "10";
+        String maxInFlight = args.length > 5 ? args[5] : "4";
+
+        PrintStream report = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        report.printf("%d clients, one user, backend latency %d ms, window %d s%n", clients, latency.toMillis(), window.toSeconds());
+        report.printf("%-22s %14s %16s %12s %8s%n", "limits", "backend req/s", "backend in-flight", "429 / s", "errors");
+
+        Backend backend = new Backend(latency);
+        try {
+            for (String[] limits : new String[][]{{"1000000", "1000000", "1000000"}, {rate, burst, maxInFlight}}) {
+                try (ConfigurableApplicationContext app = start(backend.port(), limits)) {
+                    int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+                    backend.reset();
+                    Result result = run(port, clients, window, backend);
+                    String label = limits[0].equals("1000000") ? "none" : String.join(",", limits);
+                    report.printf("%-22s %14.1f %16d %12.1f %8d%n", label, result.backendRequests() / (double) window.toSeconds(),
+                            backend.maxInFlight(), result.rejected() / (double) window.toSeconds(), result.errors());
+                }
+            }
+        } finally {
+            backend.close();
+        }
+    }
+
+    private static ConfigurableApplicationContext start(int backendPort, String[] limits) {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        return new SpringApplicationBuilder(GatewayServiceApplication.class).run(
+                "--server.port=0",
+                "--ASSESSMENT_SERVICE_URL=http://localhost:" + backendPort,
+                "--ASSESS_RATE_LIMIT=" + limits[0],
+                "--ASSESS_BURST_LIMIT=" + limits[1],
+                "--ASSESS_IN_FLIGHT_LIMIT=" + limits[2],
+                "--logging.level.root=warn",
+                "--logging.level.org.springframework.security=warn",
+                "--logging.level.org.springframework.web=warn");
+    }
+
+    private static Result run(int port, int clients, Duration window, Backend backend) throws Exception {
+        AtomicLong rejected = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        AtomicInteger ids = new AtomicInteger();
+
+        try (HttpClient httpClient = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+             ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            login(httpClient, port);
+
+            int before = backend.requests();
+            long deadline = System.nanoTime() + window.toNanos();
+            List<Future<?>> running = new ArrayList<>(clients);
+            for (int i = 0; i < clients; i++) {
+                running.add(clientThreads.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        URI uri = URI.create("http://localhost:" + port + "/api/assess/" + ids.incrementAndGet());
+                        try {
+                            HttpResponse<Void> response = httpClient.send(HttpRequest.newBuilder(uri).GET().build(),
+                                    HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() == 429) {
+                                rejected.incrementAndGet();
+                            } else if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> client : running) {
+                client.get();
+            }
+            return new Result(backend.requests() - before, rejected.get(), errors.get());
+        }
+    }
+
+    private static void login(HttpClient httpClient, int port) throws Exception {
+        HttpResponse<Void> response = httpClient.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/login"))
+                        .header("Content-Type", "application/x-www-form-urlencoded")
+                        .POST(HttpRequest.BodyPublishers.ofString("username=user&password=userpass"))
+                        .build(),
+                HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("login failed with " + response.statusCode());
+        }
+    }
+
+    /**
+     * Stand-in assessment service recording how many requests it serves and the most it had at once.
+     */
+    private static final class Backend implements AutoCloseable {
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+        private final AtomicInteger requests = new AtomicInteger();
+        private final LoopResources loops = LoopResources.create("backend");
+        private final DisposableServer server;
+
+        Backend(Duration latency) {
+            this.server = HttpServer.create()
+                    .runOn(loops)
+                    .host("localhost")
+                    .port(0)
+                    .handle((request, response) -> {
+                        int current = inFlight.incrementAndGet();
+                        maxInFlight.accumulateAndGet(current, Math::max);
+                        requests.incrementAndGet();
+                        return Mono.delay(latency)
+                                .then(response.header("Content-Type", "application/json")
+                                        .sendString(Mono.just("{\"riskLevel\":\"NONE\"}"))
+                                        .then())
+                                .doFinally(signal -> inFlight.decrementAndGet());
+                    })
+                    .bindNow();
+        }
+
+        int port() {
+            return server.port();
+        }
+
+        int requests() {
+            return requests.get();
+        }
+
+        int maxInFlight() {
+            return maxInFlight.get();
+        }
+
+        void reset() {
+            maxInFlight.set(0);
+        }
+
+        @Override
+        public void close() {
+            server.disposeNow();
+            loops.disposeLater().block();
+        }
+    }
+
+    private record Result(long backendRequests, long rejected, long errors) {
+    }
+}
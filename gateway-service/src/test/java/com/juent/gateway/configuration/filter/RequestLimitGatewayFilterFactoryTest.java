@@ -0,0 +1,117 @@
+package com.juent.gateway.configuration.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RequestLimitGatewayFilterFactoryTest {
+
+    private static final Route ROUTE = Route.async()
+            .id("diabetes-assessment-service")
+            .uri("http://localhost")
+            .predicate(exchange -> true)
+            .build();
+
+    private SimpleMeterRegistry meterRegistry;
+    private RequestLimitGatewayFilterFactory factory;
+    private AtomicInteger forwarded;
+
+    @BeforeEach
+    public void init() {
+        meterRegistry = new SimpleMeterRegistry();
+        factory = new RequestLimitGatewayFilterFactory(Duration.ofMinutes(10), meterRegistry);
+        forwarded = new AtomicInteger();
+    }
+
+    @Test
+    public void filter_shouldRejectRequestsOverBurst_withRetryAfter() {
+        GatewayFilter filter = factory.apply(config(1, 2, 10));
+
+        assertNull(send(filter, "user", completing()).getResponse().getStatusCode());
+        assertNull(send(filter, "user", completing()).getResponse().getStatusCode());
+        ServerWebExchange rejected = send(filter, "user", completing());
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getResponse().getStatusCode());
+        assertEquals("1", rejected.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(2, forwarded.get());
+        assertEquals(1.0, meterRegistry.get("gateway.requests.limited").tag("reason", "rate").counter().count());
+    }
+
+    @Test
+    public void filter_shouldLimitEachPrincipalSeparately() {
+        GatewayFilter filter = factory.apply(config(1, 1, 10));
+
+        send(filter, "user", completing());
+        send(filter, "user", completing());
+        send(filter, "admin", completing());
+
+        assertEquals(2, forwarded.get());
+    }
+
+    @Test
+    public void filter_shouldRejectRequestsOverMaxInFlight_untilOneCompletes() {
+        GatewayFilter filter = factory.apply(config(100, 100, 2));
+        Sinks.Empty<Void> backend = Sinks.empty();
+
+        Disposable first = filter.filter(exchange("user"), pending(backend)).subscribe();
+        Disposable second = filter.filter(exchange("user"), pending(backend)).subscribe();
+        ServerWebExchange rejected = send(filter, "user", completing());
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getResponse().getStatusCode());
+        assertEquals(2.0, meterRegistry.get("gateway.requests.in.flight").gauge().value());
+
+        backend.tryEmitEmpty();
+        assertTrue(first.isDisposed() && second.isDisposed());
+        assertNull(send(filter, "user", completing()).getResponse().getStatusCode());
+        assertEquals(3, forwarded.get());
+        assertEquals(0.0, meterRegistry.get("gateway.requests.in.flight").gauge().value());
+    }
+
+    private ServerWebExchange send(GatewayFilter filter, String principal, GatewayFilterChain chain) {
+        ServerWebExchange exchange = exchange(principal);
+        filter.filter(exchange, chain).block();
+        return exchange;
+    }
+
+    private static ServerWebExchange exchange(String principal) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/assess/1"));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, ROUTE);
+        return exchange.mutate()
+                .principal(Mono.just(new UsernamePasswordAuthenticationToken(principal, null, List.of())))
+                .build();
+    }
+
+    private GatewayFilterChain completing() {
+        return exchange -> Mono.fromRunnable(forwarded::incrementAndGet);
+    }
+
+    private GatewayFilterChain pending(Sinks.Empty<Void> backend) {
+        return exchange -> Mono.fromRunnable(forwarded::incrementAndGet).then(backend.asMono());
+    }
+
+    private static RequestLimitGatewayFilterFactory.Config config(double replenishRate, int burstCapacity, int maxInFlight) {
+        return new RequestLimitGatewayFilterFactory.Config()
+                .setReplenishRate(replenishRate)
+                .setBurstCapacity(burstCapacity)
+                .setMaxInFlight(maxInFlight);
+    }
+}
@@ -0,0 +1,124 @@
+package com.juent.gateway.configuration.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResponseCacheFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ResponseCacheFilter filter;
+    private AtomicInteger backendCalls;
+    private HttpStatus backendStatus;
+
+    @BeforeEach
+    public void init() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new ResponseCacheFilter(100, 1024, Duration.ofMinutes(1), List.of("/api/assess"), meterRegistry);
+        backendCalls = new AtomicInteger();
+        backendStatus = HttpStatus.OK;
+    }
+
+    @Test
+    public void get_shouldBeServedFromCache_forSamePrincipalAndPath() {
+        assertEquals("body-1", get("user", "/api/patient/1").getBodyAsString().block());
+        MockServerHttpResponse cached = get("user", "/api/patient/1");
+
+        assertEquals(HttpStatus.OK, cached.getStatusCode());
+        assertEquals("body-1", cached.getBodyAsString().block());
+        assertEquals(MediaType.APPLICATION_JSON, cached.getHeaders().getContentType());
+        assertEquals(1, backendCalls.get());
+        assertEquals(0.5, meterRegistry.get("gateway.response.cache.hit.ratio").gauge().value());
+    }
+
+    @Test
+    public void get_shouldNotShareCachedResponses_betweenPrincipalsOrQueries() {
+        get("user", "/api/patient/1");
+        get("admin", "/api/patient/1");
+        get("user", "/api/patient/1?limit=10");
+
+        assertEquals(3, backendCalls.get());
+    }
+
+    @Test
+    public void write_shouldInvalidateItsResourceAndDerivedResources_forEveryPrincipal() {
+        get("user", "/api/patient/1");
+        get("user", "/api/note/1");
+        get("user", "/api/assess/1");
+
+        exchange("admin", HttpMethod.PUT, "/api/patient/1");
+        get("user", "/api/patient/1");
+        get("user", "/api/note/1");
+        get("user", "/api/assess/1");
+
+        assertEquals(6, backendCalls.get());
+    }
+
+    @Test
+    public void get_shouldNotCacheErrorsOrAnonymousRequests() {
+        backendStatus = HttpStatus.NOT_FOUND;
+        get("user", "/api/patient/1");
+        get("user", "/api/patient/1");
+        backendStatus = HttpStatus.OK;
+        get(null, "/api/patient/1");
+        get(null, "/api/patient/1");
+
+        assertEquals(4, backendCalls.get());
+    }
+
+    @Test
+    public void get_shouldNotCacheResponsesLargerThanEntryLimit() {
+        filter = new ResponseCacheFilter(100, 4, Duration.ofMinutes(1), List.of(), meterRegistry);
+
+        get("user", "/api/patient/1");
+        get("user", "/api/patient/1");
+
+        assertEquals(2, backendCalls.get());
+    }
+
+    @Test
+    public void resourceOf_shouldKeepFirstTwoSegments() {
+        assertEquals("/api/patient", ResponseCacheFilter.resourceOf("/api/patient/42/notes"));
+        assertEquals("/api/note", ResponseCacheFilter.resourceOf("/api/note"));
+    }
+
+    private MockServerHttpResponse get(String principal, String path) {
+        return exchange(principal, HttpMethod.GET, path);
+    }
+
+    private MockServerHttpResponse exchange(String principal, HttpMethod method, String path) {
+        MockServerWebExchange mock = MockServerWebExchange.from(MockServerHttpRequest.method(method, path));
+        ServerWebExchange exchange = principal == null ? mock : mock.mutate()
+                .principal(Mono.just(new UsernamePasswordAuthenticationToken(principal, null, List.of())))
+                .build();
+        filter.filter(exchange, backend()).block();
+        return mock.getResponse();
+    }
+
+    private GatewayFilterChain backend() {
+        return exchange -> {
+            int call = backendCalls.incrementAndGet();
+            exchange.getResponse().setStatusCode(backendStatus);
+            exchange.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            byte[] body = ("body-" + call).getBytes(StandardCharsets.UTF_8);
+            return exchange.getResponse().writeWith(Mono.just(exchange.getResponse().bufferFactory().wrap(body)));
+        };
+    }
+}
@@ -0,0 +1,15 @@
+package com.juent.note.DTO;
+
+import com.juent.note.enums.BulkItemStatusEnum;
+import lombok.*;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Generated
+public class NoteBulkItemDTO {
+    private int index;
+    private String id;
+    private BulkItemStatusEnum status;
+    private String error;
+}
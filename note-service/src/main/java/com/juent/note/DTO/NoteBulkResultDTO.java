@@ -0,0 +1,16 @@
+package com.juent.note.DTO;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Generated
+public class NoteBulkResultDTO {
+    private int created;
+    private int rejected;
+    private int failed;
+    private List<NoteBulkItemDTO> items;
+}
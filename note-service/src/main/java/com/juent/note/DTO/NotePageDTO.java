@@ -0,0 +1,15 @@
+package com.juent.note.DTO;
+
+import com.juent.note.model.Note;
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Generated
+public class NotePageDTO {
+    private List<Note> notes;
+    private String nextCursor;
+}
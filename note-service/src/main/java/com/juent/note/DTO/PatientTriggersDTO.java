@@ -0,0 +1,16 @@
+package com.juent.note.DTO;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Generated
+public class PatientTriggersDTO {
+    private String patId;
+    private String dictionaryVersion;
+    private long triggerMask;
+    private List<String> triggers;
+}
@@ -0,0 +1,123 @@
+package com.juent.note.configuration;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates at startup the indexes declared on the documents and reports, per collection, the declared indexes
+ * that were missing and the indexes present in the database that no document declares. Indexes are matched on
+ * their keys, not their names; extra indexes are only reported, never dropped.
+ * The documents are the {@code @Document} classes Spring Boot scanned into the mapping context, so note-service and
+ * patient-service share this class verbatim apart from its package.
+ */
+@Component
+public class MongoIndexInitializer {
+    private static final Logger logger = LoggerFactory.getLogger(MongoIndexInitializer.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoPersistentEntityIndexResolver indexResolver;
+
+    public MongoIndexInitializer(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+        this.indexResolver = new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        for (Class<?> document : documents()) {
+            try {
+                IndexReport report = ensureIndexes(document);
+                if (report.missing().isEmpty() && report.extra().isEmpty()) {
+                    logger.info("Indexes of {} are up to date", report.collection());
+                }
+                if (!report.missing().isEmpty()) {
+                    logger.info("Created missing indexes on {}: {}", report.collection(), report.missing());
+                }
+                if (!report.extra().isEmpty()) {
+                    logger.warn("Indexes on {} not declared by any document: {}", report.collection(), report.extra());
+                }
+            } catch (DataAccessResourceFailureException e) {
+                logger.warn("Could not reach MongoDB to ensure indexes: {}", e.getMessage());
+                return;
+            } catch (DataAccessException e) {
+                logger.warn("Could not ensure indexes of {}: {}", document.getSimpleName(), e.getMessage());
+            }
+        }
+    }
+
+    private List<Class<?>> documents() {
+        return mongoTemplate.getConverter().getMappingContext().getPersistentEntities().stream()
+                .filter(entity -> entity.isAnnotationPresent(org.springframework.data.mongodb.core.mapping.Document.class))
+                .<Class<?>>map(MongoPersistentEntity::getType)
+                .sorted(Comparator.comparing(Class::getName))
+                .toList();
+    }
+
+    public IndexReport ensureIndexes(Class<?> document) {
+        IndexOperations indexOps = mongoTemplate.indexOps(document);
+        List<List<Map.Entry<String, Object>>> existing = new ArrayList<>();
+        List<String> extra = new ArrayList<>();
+        List<IndexInfo> indexInfos = indexOps.getIndexInfo();
+        for (IndexInfo info : indexInfos) {
+            existing.add(keysOf(info));
+        }
+
+        List<List<Map.Entry<String, Object>>> declared = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        for (IndexDefinition definition : indexResolver.resolveIndexFor(document)) {
+            List<Map.Entry<String, Object>> keys = keysOf(definition.getIndexKeys());
+            declared.add(keys);
+            if (!existing.contains(keys)) {
+                indexOps.ensureIndex(definition);
+                missing.add(definition.getIndexKeys().toJson());
+            }
+        }
+
+        for (int i = 0; i < indexInfos.size(); i++) {
+            IndexInfo info = indexInfos.get(i);
+            if (!"_id_".equals(info.getName()) && !declared.contains(existing.get(i))) {
+                extra.add(info.getName());
+            }
+        }
+        return new IndexReport(mongoTemplate.getCollectionName(document), missing, extra);
+    }
+
+    private static List<Map.Entry<String, Object>> keysOf(IndexInfo info) {
+        Document keys = new Document();
+        for (IndexField field : info.getIndexFields()) {
+            keys.put(field.getKey(), field.getDirection() == Sort.Direction.DESC ? -1 : 1);
+        }
+        return keysOf(keys);
+    }
+
+    private static List<Map.Entry<String, Object>> keysOf(Document keys) {
+        List<Map.Entry<String, Object>> entries = new ArrayList<>();
+        keys.forEach((key, direction) -> entries.add(Map.entry(key,
+                direction instanceof Number number ? (Object) number.intValue() : direction)));
+        return entries;
+    }
+
+    public record IndexReport(String collection, List<String> missing, List<String> extra) {
+    }
+}
@@ -0,0 +1,58 @@
+package com.juent.note.configuration;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.autoconfigure.mongo.MongoConnectionDetails;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The reactive profile runs two Mongo clients, each with its own connection pool: the reactive client behind
+ * {@code ReactiveNoteRepository} serving reads, and the blocking client behind {@code MongoTemplate}, still used by
+ * writes, the trigger index and index creation. The blocking client only serves work offloaded to the bounded
+ * elastic scheduler, so it is declared here with a smaller pool than the reactive one, instead of the driver's
+ * default of 100 connections each.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveMongoConfig {
+
+    /**
+     * Spring Boot's customizers are applied to the auto-configured reactive client only, the blocking client being
+     * declared below.
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer reactivePoolCustomizer(
+            @Value("${note.reactive.mongo.max-pool-size}") int maxPoolSize,
+            @Value("${note.reactive.mongo.max-wait-time}") Duration maxWaitTime) {
+        return builder -> builder.applyToConnectionPoolSettings(pool -> pool
+                .maxSize(maxPoolSize)
+                .maxWaitTime(maxWaitTime.toMillis(), TimeUnit.MILLISECONDS));
+    }
+
+    @Bean(destroyMethod = "close")
+    public MongoClient mongoClient(MongoConnectionDetails connectionDetails,
+                                   @Value("${note.reactive.blocking-mongo.max-pool-size}") int maxPoolSize,
+                                   @Value("${note.reactive.blocking-mongo.max-wait-time}") Duration maxWaitTime) {
+        return MongoClients.create(blockingClientSettings(connectionDetails.getConnectionString(), maxPoolSize, maxWaitTime));
+    }
+
+    static MongoClientSettings blockingClientSettings(ConnectionString connectionString, int maxPoolSize,
+                                                      Duration maxWaitTime) {
+        return MongoClientSettings.builder()
+                .applyConnectionString(connectionString)
+                .applyToConnectionPoolSettings(pool -> pool
+                        .minSize(0)
+                        .maxSize(maxPoolSize)
+                        .maxWaitTime(maxWaitTime.toMillis(), TimeUnit.MILLISECONDS))
+                .build();
+    }
+}
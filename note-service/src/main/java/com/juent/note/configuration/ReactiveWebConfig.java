@@ -0,0 +1,20 @@
+package com.juent.note.configuration;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.client.RestClient;
+
+/**
+ * Spring Boot only auto-configures {@link RestClient.Builder} for servlet applications; the assessment cache
+ * notifier still needs one on the reactive stack.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveWebConfig {
+
+    @Bean
+    public RestClient.Builder restClientBuilder() {
+        return RestClient.builder();
+    }
+}
@@ -0,0 +1,141 @@
+package com.juent.note.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.reactivestreams.Publisher;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.lang.Nullable;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Smile, Jackson's binary JSON, offered next to JSON on the endpoints read by the assessment service, on both
+ * stacks. JSON stays the default; Smile is only written to callers listing it in {@code Accept}.
+ * The mappers are built from Spring Boot's Jackson settings so both formats carry the same fields.
+ * Responses of those endpoints carry {@code Vary: Accept}, so that caches keep the two formats apart.
+ */
+@Configuration
+public class SmileConfig implements WebMvcConfigurer {
+
+    public static final String APPLICATION_SMILE = "application/x-jackson-smile";
+
+    private static final MimeType[] SMILE_MIME_TYPES = {
+            MimeTypeUtils.parseMimeType(APPLICATION_SMILE),
+            MimeTypeUtils.parseMimeType("application/stream+x-jackson-smile")
+    };
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    @Bean
+    public CodecCustomizer smileCodecCustomizer(Jackson2ObjectMapperBuilder builder) {
+        ObjectMapper smileMapper = builder.factory(new SmileFactory()).build();
+        return configurer -> {
+            configurer.defaultCodecs().jackson2SmileEncoder(new ArraySmileEncoder(smileMapper));
+            configurer.defaultCodecs().jackson2SmileDecoder(new Jackson2SmileDecoder(smileMapper, SMILE_MIME_TYPES));
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new VaryByAcceptInterceptor());
+    }
+
+    @Bean
+    @Profile("reactive")
+    public WebFilter varyByAcceptWebFilter() {
+        return new VaryByAcceptWebFilter();
+    }
+
+    private static boolean producesSmile(Object handler) {
+        RequestMapping mapping = handler instanceof HandlerMethod handlerMethod
+                ? handlerMethod.getMethodAnnotation(RequestMapping.class)
+                : null;
+        return mapping != null && Arrays.asList(mapping.produces()).contains(APPLICATION_SMILE);
+    }
+
+    /**
+     * Adds {@code Vary: Accept} before the handler runs, so that it is also sent with a 304.
+     */
+    public static class VaryByAcceptInterceptor implements HandlerInterceptor {
+
+        @Override
+        public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+            if (producesSmile(handler)) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Same as {@link VaryByAcceptInterceptor} on the reactive stack, where the handler is only known once the
+     * filters have run: the header is added when the response is committed.
+     */
+    public static class VaryByAcceptWebFilter implements WebFilter {
+
+        @Override
+        public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+            exchange.getResponse().beforeCommit(() -> {
+                if (producesSmile(exchange.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE))) {
+                    exchange.getResponse().getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+                }
+                return Mono.empty();
+            });
+            return chain.filter(exchange);
+        }
+    }
+
+    /**
+     * WebFlux joins the elements of a non-streamed {@code Flux} with JSON brackets and commas, which breaks Smile:
+     * collect them and write a single Smile array instead.
+     */
+    static class ArraySmileEncoder extends Jackson2SmileEncoder {
+
+        ArraySmileEncoder(ObjectMapper smileMapper) {
+            super(smileMapper, SMILE_MIME_TYPES);
+        }
+
+        @Override
+        public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory,
+                                       ResolvableType elementType, @Nullable MimeType mimeType,
+                                       @Nullable Map<String, Object> hints) {
+            boolean streamed = mimeType != null && getStreamingMediaTypes().stream().anyMatch(mimeType::isCompatibleWith);
+            if (inputStream instanceof Mono || streamed) {
+                return super.encode(inputStream, bufferFactory, elementType, mimeType, hints);
+            }
+            return Flux.from(inputStream).collectList().flatMapMany(elements -> super.encode(Mono.just(elements),
+                    bufferFactory, ResolvableType.forClassWithGenerics(List.class, elementType), mimeType, hints));
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.juent.note.configuration.filter;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of {@link InternalAuthFilter}, used by the reactive stack.
+ */
+public class InternalAuthWebFilter implements WebFilter {
+
+    private final String expectedToken;
+
+    public InternalAuthWebFilter(String expectedToken) {
+        this.expectedToken = expectedToken;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String token = exchange.getRequest().getHeaders().getFirst("X-Internal-Auth");
+        if (!expectedToken.equals(token)) {
+            exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+            return exchange.getResponse().setComplete();
+        }
+        return chain.filter(exchange);
+    }
+}
@@ -1,25 +1,44 @@
 package com.juent.note.controller;
 
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.juent.note.DTO.NoteBulkResultDTO;
 import com.juent.note.DTO.NoteDTO;
+import com.juent.note.DTO.NotePageDTO;
+import com.juent.note.DTO.PatientTriggersDTO;
+import com.juent.note.configuration.SmileConfig;
 import com.juent.note.model.Note;
+import com.juent.note.repository.NoteBody;
+import com.juent.note.repository.NoteText;
+import com.juent.note.service.NoteBulkService;
 import com.juent.note.service.NoteService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping(value = "/api/note", produces = "application/json")
 public class NoteController {
     private static final Logger logger = LoggerFactory.getLogger(NoteController.class);
 
     private final NoteService noteService;
+    private final NoteBulkService noteBulkService;
+    private final ObjectMapper objectMapper;
 
-    public NoteController(NoteService noteService) {
+    public NoteController(NoteService noteService, NoteBulkService noteBulkService, ObjectMapper objectMapper) {
         this.noteService = noteService;
+        this.noteBulkService = noteBulkService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
@@ -36,7 +55,28 @@ public class NoteController {
         return ResponseEntity.ok(notes);
     }
 
-    @GetMapping("/{id}")
+    @GetMapping(params = "limit")
+    public ResponseEntity<NotePageDTO> getNotesPage(@RequestParam(required = false) String after,
+                                                    @RequestParam int limit) {
+        logger.info("fetching {} notes after {}", limit, after);
+        return ResponseEntity.ok(noteService.findNotesPage(after, limit));
+    }
+
+    @GetMapping(produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamNotes() {
+        logger.info("streaming all notes");
+        StreamingResponseBody body = out -> noteService.forEachNote(note -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(note));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok(body);
+    }
+
+    @GetMapping(value = "/{id}", produces = {"application/json", SmileConfig.APPLICATION_SMILE})
     public ResponseEntity<List<Note>> getAllNoteByPatId(@PathVariable String id) {
         logger.info("fetching note with id {}", id);
         List<Note> notes = noteService.findAllNoteByPatId(id);
@@ -49,6 +89,49 @@ public class NoteController {
         return ResponseEntity.ok(notes);
     }
 
+    /**
+     * Only the text of the patient's notes, read through a Mongo projection; used by the assessment service.
+     */
+    @GetMapping(value = "/{id}/texts", produces = {"application/json", SmileConfig.APPLICATION_SMILE})
+    public ResponseEntity<List<NoteText>> getNoteTextsByPatId(@PathVariable String id) {
+        logger.info("fetching note texts of patient {}", id);
+        return ResponseEntity.ok(noteService.findNoteTextsByPatId(id));
+    }
+
+    /**
+     * Triggers found in the patient's notes, matched here with note-service's dictionary. A caller passing the
+     * version of its own dictionary gets 409 when the two differ; it can post its terms instead.
+     */
+    @GetMapping(value = "/{id}/triggers", produces = {"application/json", SmileConfig.APPLICATION_SMILE})
+    public ResponseEntity<PatientTriggersDTO> getTriggersByPatId(@PathVariable String id,
+                                                                 @RequestParam(required = false) String version) {
+        logger.info("fetching triggers of patient {} for dictionary {}", id, version);
+        return ResponseEntity.ok(noteService.findTriggersByPatId(id, version));
+    }
+
+    /**
+     * Triggers found in the patient's notes for the caller's terms, in the caller's order: from the index when they
+     * make up note-service's dictionary, by scanning the notes here otherwise. Never answers 409.
+     */
+    @PostMapping(value = "/{id}/triggers", produces = {"application/json", SmileConfig.APPLICATION_SMILE})
+    public ResponseEntity<PatientTriggersDTO> getTriggersByPatIdForTerms(@PathVariable String id,
+                                                                         @RequestBody List<String> terms) {
+        logger.info("fetching triggers of patient {} for {} terms", id, terms.size());
+        return ResponseEntity.ok(noteService.findTriggersByPatIdForTerms(id, terms));
+    }
+
+    @PostMapping(value = "/batch", produces = {"application/json", SmileConfig.APPLICATION_SMILE})
+    public ResponseEntity<List<Note>> getAllNoteByPatIds(@RequestBody List<String> patIds) {
+        logger.info("fetching notes for {} patients", patIds.size());
+        return ResponseEntity.ok(noteService.findAllNoteByPatIds(patIds));
+    }
+
+    @PostMapping(value = "/batch/texts", produces = {"application/json", SmileConfig.APPLICATION_SMILE})
+    public ResponseEntity<List<NoteBody>> getNoteBodiesByPatIds(@RequestBody List<String> patIds) {
+        logger.info("fetching note texts for {} patients", patIds.size());
+        return ResponseEntity.ok(noteService.findNoteBodiesByPatIds(patIds));
+    }
+
     @PostMapping("/insert")
     public ResponseEntity<NoteDTO> insertNote(@RequestBody NoteDTO noteDTO) {
         logger.info("Creating new note {}", noteDTO);
@@ -57,6 +140,20 @@ public class NoteController {
         return ResponseEntity.ok(noteDTO);
     }
 
+    /**
+     * Imports a JSON array or an NDJSON stream of notes, read and written batch by batch, and answers one result
+     * per item in input order.
+     */
+    @PostMapping(value = "/bulk", consumes = {"application/json", "application/x-ndjson"})
+    public ResponseEntity<NoteBulkResultDTO> insertNotes(InputStream body) throws IOException {
+        logger.info("Importing notes in bulk");
+        try (MappingIterator<NoteDTO> notes = objectMapper.readerFor(NoteDTO.class).readValues(body)) {
+            NoteBulkResultDTO result = noteBulkService.insertNotes(notes);
+            logger.info("Imported {} notes, {} rejected, {} failed", result.getCreated(), result.getRejected(), result.getFailed());
+            return ResponseEntity.ok(result);
+        }
+    }
+
     @PutMapping("/update/{id}")
     public ResponseEntity<NoteDTO> updateNote(@RequestBody NoteDTO noteDTO, @PathVariable String id) {
         logger.info("updating note with id {}", id);
@@ -0,0 +1,156 @@
+package com.juent.note.controller;
+
+import com.juent.note.DTO.NoteBulkResultDTO;
+import com.juent.note.DTO.NoteDTO;
+import com.juent.note.DTO.NotePageDTO;
+import com.juent.note.DTO.PatientTriggersDTO;
+import com.juent.note.configuration.SmileConfig;
+import com.juent.note.model.Note;
+import com.juent.note.repository.NoteBody;
+import com.juent.note.repository.NoteText;
+import com.juent.note.repository.ReactiveNoteRepository;
+import com.juent.note.service.NoteBulkService;
+import com.juent.note.service.NoteService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Same API as {@link NoteController}, served on the reactive stack when the {@code reactive} profile is active.
+ * Reads stream from the reactive Mongo driver; writes, paging and triggers reuse the blocking services, run on
+ * the bounded elastic scheduler so that they never hold an event loop thread.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping(value = "/api/note", produces = "application/json")
+public class ReactiveNoteController {
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveNoteController.class);
+
+    private final ReactiveNoteRepository reactiveNoteRepository;
+    private final NoteService noteService;
+    private final NoteBulkService noteBulkService;
+
+    public ReactiveNoteController(ReactiveNoteRepository reactiveNoteRepository, NoteService noteService,
+                                  NoteBulkService noteBulkService) {
+        this.reactiveNoteRepository = reactiveNoteRepository;
+        this.noteService = noteService;
+        this.noteBulkService = noteBulkService;
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<List<Note>>> getAllNotes() {
+        logger.info("fetching all notes");
+        return reactiveNoteRepository.findAll()
+                .collectList()
+                .map(notes -> {
+                    if (notes.isEmpty()) {
+                        logger.warn("No notes found");
+                        return ResponseEntity.notFound().build();
+                    }
+                    logger.info("found {} notes", notes.size());
+                    return ResponseEntity.ok(notes);
+                });
+    }
+
+    @GetMapping(params = "limit")
+    public Mono<NotePageDTO> getNotesPage(@RequestParam(required = false) String after, @RequestParam int limit) {
+        logger.info("fetching {} notes after {}", limit, after);
+        return blocking(() -> noteService.findNotesPage(after, limit));
+    }
+
+    @GetMapping(produces = "application/x-ndjson")
+    public Flux<Note> streamNotes() {
+        logger.info("streaming all notes");
+        return reactiveNoteRepository.findAll(Sort.by("id"));
+    }
+
+    @GetMapping(value = "/{id}", produces = {"application/json", SmileConfig.APPLICATION_SMILE})
+    public Flux<Note> getAllNoteByPatId(@PathVariable String id) {
+        logger.info("fetching note with id {}", id);
+        return reactiveNoteRepository.findAllByPatId(id);
+    }
+
+    @GetMapping(value = "/{id}/texts", produces = {"application/json", SmileConfig.APPLICATION_SMILE})
+    public Flux<NoteText> getNoteTextsByPatId(@PathVariable String id) {
+        logger.info("fetching note texts of patient {}", id);
+        return reactiveNoteRepository.findTextByPatId(id);
+    }
+
+    @GetMapping(value = "/{id}/triggers", produces = {"application/json", SmileConfig.APPLICATION_SMILE})
+    public Mono<PatientTriggersDTO> getTriggersByPatId(@PathVariable String id,
+                                                       @RequestParam(required = false) String version) {
+        logger.info("fetching triggers of patient {} for dictionary {}", id, version);
+        return blocking(() -> noteService.findTriggersByPatId(id, version));
+    }
+
+    @PostMapping(value = "/{id}/triggers", produces = {"application/json", SmileConfig.APPLICATION_SMILE})
+    public Mono<PatientTriggersDTO> getTriggersByPatIdForTerms(@PathVariable String id, @RequestBody List<String> terms) {
+        logger.info("fetching triggers of patient {} for {} terms", id, terms.size());
+        return blocking(() -> noteService.findTriggersByPatIdForTerms(id, terms));
+    }
+
+    @PostMapping(value = "/batch", produces = {"application/json", SmileConfig.APPLICATION_SMILE})
+    public Flux<Note> getAllNoteByPatIds(@RequestBody List<String> patIds) {
+        noteService.checkBatchSize(patIds);
+        logger.info("fetching notes for {} patients", patIds.size());
+        return reactiveNoteRepository.findAllByPatIdIn(patIds);
+    }
+
+    @PostMapping(value = "/batch/texts", produces = {"application/json", SmileConfig.APPLICATION_SMILE})
+    public Flux<NoteBody> getNoteBodiesByPatIds(@RequestBody List<String> patIds) {
+        noteService.checkBatchSize(patIds);
+        logger.info("fetching note texts for {} patients", patIds.size());
+        return reactiveNoteRepository.findBodyByPatIdIn(patIds);
+    }
+
+    @PostMapping("/insert")
+    public Mono<NoteDTO> insertNote(@RequestBody NoteDTO noteDTO) {
+        logger.info("Creating new note {}", noteDTO);
+        return blocking(() -> noteService.saveNote(noteDTO))
+                .doOnNext(createdNote -> logger.info("Note created successfully {}", createdNote))
+                .thenReturn(noteDTO);
+    }
+
+    /**
+     * The decoded notes are pulled batch by batch by the bulk service from a bounded elastic thread, so the request
+     * body is still read with backpressure.
+     */
+    @PostMapping(value = "/bulk", consumes = {"application/json", "application/x-ndjson"})
+    public Mono<NoteBulkResultDTO> insertNotes(@RequestBody Flux<NoteDTO> notes) {
+        logger.info("Importing notes in bulk");
+        return blocking(() -> noteBulkService.insertNotes(notes.toIterable().iterator()))
+                .doOnNext(result -> logger.info("Imported {} notes, {} rejected, {} failed",
+                        result.getCreated(), result.getRejected(), result.getFailed()));
+    }
+
+    @PutMapping("/update/{id}")
+    public Mono<NoteDTO> updateNote(@RequestBody NoteDTO noteDTO, @PathVariable String id) {
+        logger.info("updating note with id {}", id);
+        return blocking(() -> noteService.updateNote(noteDTO, id))
+                .doOnNext(updatedNote -> logger.info("Note with id {} updated successfully", id));
+    }
+
+    @DeleteMapping("/delete/{id}")
+    public Mono<ResponseEntity<Void>> deleteNoteById(@PathVariable String id) {
+        logger.info("deleting note with id {}", id);
+        return Mono.fromRunnable(() -> noteService.deleteNoteById(id))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then(Mono.fromCallable(() -> {
+                    logger.info("Note with id {} deleted successfully", id);
+                    return ResponseEntity.noContent().<Void>build();
+                }));
+    }
+
+    private static <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(Schedulers.boundedElastic());
+    }
+}
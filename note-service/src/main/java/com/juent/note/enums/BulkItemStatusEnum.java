@@ -0,0 +1,7 @@
+package com.juent.note.enums;
+
+public enum BulkItemStatusEnum {
+    CREATED,
+    REJECTED,
+    FAILED
+}
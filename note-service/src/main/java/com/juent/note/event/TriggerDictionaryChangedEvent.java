@@ -0,0 +1,4 @@
+package com.juent.note.event;
+
+public record TriggerDictionaryChangedEvent(String version) {
+}
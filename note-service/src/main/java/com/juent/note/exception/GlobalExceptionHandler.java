@@ -29,6 +29,20 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
     }
 
+    @ExceptionHandler(TriggerDictionaryMismatchException.class)
+    public ResponseEntity<Map<String, Object>> handleTriggerDictionaryMismatch(TriggerDictionaryMismatchException ex) {
+        logger.warn("Trigger dictionary mismatch: {}", ex.getMessage());
+
+        Map<String, Object> errorResponse = Map.of(
+                "timestamp", LocalDateTime.now(),
+                "status", HttpStatus.CONFLICT.value(),
+                "error", "Trigger Dictionary Mismatch",
+                "message", ex.getMessage()
+        );
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<Map<String, Object>> handleIllegalArgument(IllegalArgumentException ex) {
         logger.warn("Bad request: {}", ex.getMessage());
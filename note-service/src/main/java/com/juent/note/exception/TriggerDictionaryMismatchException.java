@@ -0,0 +1,7 @@
+package com.juent.note.exception;
+
+public class TriggerDictionaryMismatchException extends RuntimeException {
+    public TriggerDictionaryMismatchException(String requested, String current) {
+        super("Trigger dictionary " + requested + " requested but note-service uses " + current + ".");
+    }
+}
@@ -1,7 +1,9 @@
 package com.juent.note.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Getter
@@ -14,7 +16,12 @@ import org.springframework.data.mongodb.core.mapping.Document;
 public class Note {
     @Id
     private String id;
+    @Indexed
     private String patId;
     private String patient;
     private String note;
+    @JsonIgnore
+    private long triggerMask;
+    @JsonIgnore
+    private String triggerVersion;
 }
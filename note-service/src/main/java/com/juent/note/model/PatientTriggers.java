@@ -0,0 +1,19 @@
+package com.juent.note.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Generated
+@Document(collection = "patient_triggers")
+public class PatientTriggers {
+    @Id
+    private String patId;
+    private String dictionaryVersion;
+    private long triggerMask;
+    private long revision;
+}
@@ -0,0 +1,5 @@
+package com.juent.note.repository;
+
+public interface NoteBody extends NoteText {
+    String getPatId();
+}
@@ -1,11 +1,25 @@
 package com.juent.note.repository;
 
 import com.juent.note.model.Note;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface NoteRepository extends MongoRepository<Note, String> {
     List<Note> findAllByPatId(String id);
+
+    List<Note> findAllByPatIdIn(Collection<String> patIds);
+
+    List<NoteText> findTextByPatId(String patId);
+
+    List<NoteBody> findBodyByPatIdIn(Collection<String> patIds);
+
+    List<NoteTriggerMask> findTriggerMaskByPatId(String patId);
+
+    List<Note> findAllByOrderByIdAsc(Limit limit);
+
+    List<Note> findByIdGreaterThanOrderByIdAsc(String id, Limit limit);
 }
 
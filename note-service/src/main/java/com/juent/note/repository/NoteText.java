@@ -0,0 +1,5 @@
+package com.juent.note.repository;
+
+public interface NoteText {
+    String getNote();
+}
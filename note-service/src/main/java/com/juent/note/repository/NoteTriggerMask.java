@@ -0,0 +1,7 @@
+package com.juent.note.repository;
+
+public interface NoteTriggerMask {
+    long getTriggerMask();
+
+    String getTriggerVersion();
+}
@@ -0,0 +1,7 @@
+package com.juent.note.repository;
+
+import com.juent.note.model.PatientTriggers;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface PatientTriggersRepository extends MongoRepository<PatientTriggers, String> {
+}
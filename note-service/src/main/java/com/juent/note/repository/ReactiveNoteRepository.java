@@ -0,0 +1,17 @@
+package com.juent.note.repository;
+
+import com.juent.note.model.Note;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+
+import java.util.Collection;
+
+public interface ReactiveNoteRepository extends ReactiveMongoRepository<Note, String> {
+    Flux<Note> findAllByPatId(String patId);
+
+    Flux<Note> findAllByPatIdIn(Collection<String> patIds);
+
+    Flux<NoteText> findTextByPatId(String patId);
+
+    Flux<NoteBody> findBodyByPatIdIn(Collection<String> patIds);
+}
@@ -0,0 +1,155 @@
+package com.juent.note.service;
+
+import com.juent.note.DTO.NoteBulkItemDTO;
+import com.juent.note.DTO.NoteBulkResultDTO;
+import com.juent.note.DTO.NoteDTO;
+import com.juent.note.enums.BulkItemStatusEnum;
+import com.juent.note.event.NoteChangedEvent;
+import com.juent.note.model.Note;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Writes large volumes of notes with unordered bulk inserts of {@code note.bulk.batch-size} notes, instead of
+ * one request and several round trips per note. Notes are indexed before being written and each patient's
+ * trigger mask is refreshed once, after the last batch. Ids are assigned here so every item of the result
+ * carries the id of the note it created.
+ */
+@Service
+public class NoteBulkService {
+    private static final Logger logger = LoggerFactory.getLogger(NoteBulkService.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final TriggerIndexService triggerIndexService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+
+    public NoteBulkService(MongoTemplate mongoTemplate, TriggerIndexService triggerIndexService,
+                           ApplicationEventPublisher eventPublisher,
+                           @Value("${note.bulk.batch-size}") int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("note.bulk.batch-size must be positive");
+        }
+        this.mongoTemplate = mongoTemplate;
+        this.triggerIndexService = triggerIndexService;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Inserts the notes as they are read. Notes without a patient id or text are rejected without stopping the
+     * import; reading stops at the first item that cannot be parsed, after writing the notes read before it.
+     */
+    public NoteBulkResultDTO insertNotes(Iterator<NoteDTO> notes) {
+        List<NoteBulkItemDTO> items = new ArrayList<>();
+        List<Note> batch = new ArrayList<>(batchSize);
+        List<NoteBulkItemDTO> batchItems = new ArrayList<>(batchSize);
+        Set<String> patIds = new LinkedHashSet<>();
+
+        int index = 0;
+        try {
+            while (notes.hasNext()) {
+                NoteDTO noteDTO = notes.next();
+                String invalid = validate(noteDTO);
+                if (invalid != null) {
+                    items.add(new NoteBulkItemDTO(index++, null, BulkItemStatusEnum.REJECTED, invalid));
+                    continue;
+                }
+
+                Note note = new Note();
+                note.setId(new ObjectId().toHexString());
+                note.setPatId(noteDTO.getPatId());
+                note.setPatient(noteDTO.getPatient());
+                note.setNote(noteDTO.getNote());
+                triggerIndexService.index(note);
+
+                NoteBulkItemDTO item = new NoteBulkItemDTO(index++, note.getId(), BulkItemStatusEnum.CREATED, null);
+                items.add(item);
+                batch.add(note);
+                batchItems.add(item);
+                if (batch.size() == batchSize) {
+                    insertBatch(batch, batchItems, patIds);
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Bulk note import stopped at item {}: {}", index, e.getMessage());
+            items.add(new NoteBulkItemDTO(index, null, BulkItemStatusEnum.REJECTED, "Unreadable note: " + e.getMessage()));
+        }
+        insertBatch(batch, batchItems, patIds);
+
+        for (String patId : patIds) {
+            triggerIndexService.refreshPatient(patId);
+            eventPublisher.publishEvent(new NoteChangedEvent(patId));
+        }
+
+        NoteBulkResultDTO result = new NoteBulkResultDTO(
+                count(items, BulkItemStatusEnum.CREATED),
+                count(items, BulkItemStatusEnum.REJECTED),
+                count(items, BulkItemStatusEnum.FAILED),
+                items);
+        logger.info("Bulk note import: {} created, {} rejected, {} failed for {} patients",
+                result.getCreated(), result.getRejected(), result.getFailed(), patIds.size());
+        return result;
+    }
+
+    private void insertBatch(List<Note> batch, List<NoteBulkItemDTO> batchItems, Set<String> patIds) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            mongoTemplate.bulkOps(BulkMode.UNORDERED, Note.class).insert(batch).execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                NoteBulkItemDTO item = batchItems.get(error.getIndex());
+                item.setStatus(BulkItemStatusEnum.FAILED);
+                item.setError(error.getMessage());
+            }
+        } catch (RuntimeException e) {
+            logger.error("Bulk insert of {} notes failed: {}", batch.size(), e.getMessage());
+            for (NoteBulkItemDTO item : batchItems) {
+                item.setStatus(BulkItemStatusEnum.FAILED);
+                item.setError(e.getMessage());
+            }
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            if (batchItems.get(i).getStatus() == BulkItemStatusEnum.CREATED) {
+                patIds.add(batch.get(i).getPatId());
+            }
+        }
+        batch.clear();
+        batchItems.clear();
+    }
+
+    private static String validate(NoteDTO noteDTO) {
+        if (noteDTO == null) {
+            return "Note cannot be null";
+        }
+        if (noteDTO.getPatId() == null || noteDTO.getPatId().isBlank()) {
+            return "Missing patId";
+        }
+        if (noteDTO.getNote() == null || noteDTO.getNote().isBlank()) {
+            return "Missing note";
+        }
+        return null;
+    }
+
+    private static int count(List<NoteBulkItemDTO> items, BulkItemStatusEnum status) {
+        return (int) items.stream().filter(item -> item.getStatus() == status).count();
+    }
+}
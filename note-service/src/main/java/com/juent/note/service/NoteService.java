@@ -1,24 +1,54 @@
 package com.juent.note.service;
 
 import com.juent.note.DTO.NoteDTO;
+import com.juent.note.DTO.NotePageDTO;
+import com.juent.note.DTO.PatientTriggersDTO;
+import com.juent.note.event.NoteChangedEvent;
 import com.juent.note.exception.NoteNotFoundException;
+import com.juent.note.exception.TriggerDictionaryMismatchException;
 import com.juent.note.model.Note;
+import com.juent.note.repository.NoteBody;
 import com.juent.note.repository.NoteRepository;
+import com.juent.note.repository.NoteText;
+import org.bson.types.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class NoteService {
     private static final Logger logger = LoggerFactory.getLogger(NoteService.class);
+    public static final int MAX_PAGE_SIZE = 1000;
+    private static final int STREAM_BATCH_SIZE = 500;
 
     private final NoteRepository noteRepository;
+    private final TriggerIndexService triggerIndexService;
+    private final MongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxBatchSize;
 
-    public NoteService(NoteRepository noteRepository) {
+    public NoteService(NoteRepository noteRepository, TriggerIndexService triggerIndexService,
+                       MongoTemplate mongoTemplate, ApplicationEventPublisher eventPublisher,
+                       @Value("${note.batch.max-size}") int maxBatchSize) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("note.batch.max-size must be positive");
+        }
         this.noteRepository = noteRepository;
+        this.triggerIndexService = triggerIndexService;
+        this.mongoTemplate = mongoTemplate;
+        this.eventPublisher = eventPublisher;
+        this.maxBatchSize = maxBatchSize;
     }
 
     @Transactional(readOnly = true)
@@ -29,6 +59,42 @@ public class NoteService {
         return notes;
     }
 
+    /**
+     * Keyset page of notes ordered by id, starting after the {@code after} cursor, or at the first note when null.
+     * The next cursor is null on the last page.
+     */
+    @Transactional(readOnly = true)
+    public NotePageDTO findNotesPage(String after, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (after != null && !ObjectId.isValid(after)) {
+            throw new IllegalArgumentException("Invalid page cursor " + after);
+        }
+
+        logger.info("fetching {} notes after {}", limit, after);
+        List<Note> notes = after == null
+                ? noteRepository.findAllByOrderByIdAsc(Limit.of(limit + 1))
+                : noteRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(limit + 1));
+
+        if (notes.size() <= limit) {
+            return new NotePageDTO(notes, null);
+        }
+        List<Note> page = notes.subList(0, limit);
+        return new NotePageDTO(page, page.getLast().getId());
+    }
+
+    /**
+     * Hands every note, ordered by id, to {@code action} as it is read from a cursor fetching a bounded batch at a time.
+     */
+    public void forEachNote(Consumer<Note> action) {
+        logger.info("streaming all notes");
+        Query query = new Query().with(Sort.by("id")).cursorBatchSize(STREAM_BATCH_SIZE);
+        try (Stream<Note> notes = mongoTemplate.stream(query, Note.class)) {
+            notes.forEach(action);
+        }
+    }
+
     @Transactional(readOnly = true)
     public List<Note> findAllNoteByPatId(String patId) {
         logger.info("fetching note with id {}", patId);
@@ -37,6 +103,60 @@ public class NoteService {
         return notes;
     }
 
+    @Transactional(readOnly = true)
+    public List<Note> findAllNoteByPatIds(List<String> patIds) {
+        checkBatchSize(patIds);
+        logger.info("fetching notes for {} patients", patIds.size());
+        List<Note> notes = noteRepository.findAllByPatIdIn(patIds);
+        logger.info("found {} notes", notes.size());
+        return notes;
+    }
+
+    /**
+     * Bounds the patient ids of a batch request, which are all sent to Mongo in a single {@code $in}.
+     */
+    public void checkBatchSize(List<String> patIds) {
+        if (patIds.size() > maxBatchSize) {
+            throw new IllegalArgumentException("At most " + maxBatchSize + " patient ids per batch, got " + patIds.size());
+        }
+    }
+
+    public List<NoteText> findNoteTextsByPatId(String patId) {
+        logger.info("fetching note texts of patient {}", patId);
+        List<NoteText> notes = noteRepository.findTextByPatId(patId);
+        logger.info("found {} notes", notes.size());
+        return notes;
+    }
+
+    public List<NoteBody> findNoteBodiesByPatIds(List<String> patIds) {
+        checkBatchSize(patIds);
+        logger.info("fetching note bodies for {} patients", patIds.size());
+        List<NoteBody> notes = noteRepository.findBodyByPatIdIn(patIds);
+        logger.info("found {} notes", notes.size());
+        return notes;
+    }
+
+    /**
+     * @param dictionaryVersion version the caller counts with, or null to accept note-service's dictionary
+     * @throws TriggerDictionaryMismatchException when note-service uses another dictionary
+     */
+    public PatientTriggersDTO findTriggersByPatId(String patId, String dictionaryVersion) {
+        logger.info("fetching triggers of patient {}", patId);
+        String currentVersion = triggerIndexService.getDictionaryVersion();
+        if (dictionaryVersion != null && !dictionaryVersion.equals(currentVersion)) {
+            throw new TriggerDictionaryMismatchException(dictionaryVersion, currentVersion);
+        }
+        return triggerIndexService.findPatientTriggers(patId);
+    }
+
+    /**
+     * Triggers of the patient matched with the caller's own terms, whatever dictionary note-service uses.
+     */
+    public PatientTriggersDTO findTriggersByPatIdForTerms(String patId, List<String> terms) {
+        logger.info("fetching triggers of patient {} for {} terms", patId, terms.size());
+        return triggerIndexService.findPatientTriggers(patId, terms);
+    }
+
     @Transactional
     public NoteDTO saveNote(NoteDTO noteDTO) {
         logger.info("saving note {}", noteDTO);
@@ -45,9 +165,12 @@ public class NoteService {
             note.setPatId(noteDTO.getPatId());
             note.setPatient(noteDTO.getPatient());
             note.setNote(noteDTO.getNote());
-            noteRepository.save(note);
+            triggerIndexService.index(note);
+            NoteDTO saved = new NoteDTO(noteRepository.save(note));
             logger.info("saved note {}", note);
-            return new NoteDTO(noteRepository.save(note));
+            triggerIndexService.refreshPatient(note.getPatId());
+            eventPublisher.publishEvent(new NoteChangedEvent(note.getPatId()));
+            return saved;
         }
         throw new IllegalArgumentException("Note cannot be null");
     }
@@ -60,16 +183,21 @@ public class NoteService {
 
         if (noteDTO.getNote() != null)
             note.setNote(noteDTO.getNote());
+        triggerIndexService.index(note);
 
-        return new NoteDTO(noteRepository.save(note));
+        NoteDTO updated = new NoteDTO(noteRepository.save(note));
+        triggerIndexService.refreshPatient(note.getPatId());
+        eventPublisher.publishEvent(new NoteChangedEvent(note.getPatId()));
+        return updated;
     }
 
     @Transactional
     public void deleteNoteById(String id) {
         logger.info("deleting note with id {}", id);
-        if (!noteRepository.existsById(id)) {
-            throw new NoteNotFoundException(id);
-        }
+        Note note = noteRepository.findById(id)
+                .orElseThrow(() -> new NoteNotFoundException(id));
         noteRepository.deleteById(id);
+        triggerIndexService.refreshPatient(note.getPatId());
+        eventPublisher.publishEvent(new NoteChangedEvent(note.getPatId()));
     }
 }
@@ -0,0 +1,182 @@
+package com.juent.note.service;
+
+import com.juent.note.DTO.PatientTriggersDTO;
+import com.juent.note.event.TriggerDictionaryChangedEvent;
+import com.juent.note.model.Note;
+import com.juent.note.model.PatientTriggers;
+import com.juent.note.repository.NoteRepository;
+import com.juent.note.repository.NoteText;
+import com.juent.note.repository.NoteTriggerMask;
+import com.juent.note.repository.PatientTriggersRepository;
+import com.juent.note.trigger.TriggerDictionary;
+import com.juent.note.trigger.TriggerDictionaryProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Stores on each note the mask of the triggers it contains and keeps, per patient, the union of those masks,
+ * so that an assessment reads one small document instead of scanning the whole note history.
+ * Notes indexed with another dictionary are reindexed in the background at startup and whenever the dictionary file
+ * changes; until then the patients without an up-to-date mask have their notes scanned on read, matching each note on
+ * its own as the index does.
+ */
+@Service
+public class TriggerIndexService {
+    private static final Logger logger = LoggerFactory.getLogger(TriggerIndexService.class);
+
+    private final TriggerDictionaryProvider triggerDictionaryProvider;
+    private final NoteRepository noteRepository;
+    private final PatientTriggersRepository patientTriggersRepository;
+    private final MongoTemplate mongoTemplate;
+    private volatile RequestedDictionary lastRequested;
+
+    public TriggerIndexService(TriggerDictionaryProvider triggerDictionaryProvider, NoteRepository noteRepository,
+                               PatientTriggersRepository patientTriggersRepository, MongoTemplate mongoTemplate) {
+        this.triggerDictionaryProvider = triggerDictionaryProvider;
+        this.noteRepository = noteRepository;
+        this.patientTriggersRepository = patientTriggersRepository;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    public void index(Note note) {
+        TriggerDictionary triggerDictionary = triggerDictionaryProvider.current();
+        note.setTriggerMask(triggerDictionary.maskOf(note.getNote()));
+        note.setTriggerVersion(triggerDictionary.getVersion());
+    }
+
+    /**
+     * Recomputes the patient's mask from the masks of its notes, without any lock. Each refresh first claims the next
+     * revision of the patient's document, which also withdraws the mask it holds, and only writes its result if no
+     * later refresh has claimed one since: the last refresh to start, which sees the last note written, always wins,
+     * whichever replica runs it. The document is never deleted, so revisions only grow.
+     */
+    public void refreshPatient(String patId) {
+        long revision = claimRefresh(patId);
+        String version = triggerDictionaryProvider.current().getVersion();
+        List<NoteTriggerMask> notes = noteRepository.findTriggerMaskByPatId(patId);
+        long mask = 0;
+        for (NoteTriggerMask note : notes) {
+            if (!version.equals(note.getTriggerVersion())) {
+                return;
+            }
+            mask |= note.getTriggerMask();
+        }
+
+        Query latestRefresh = query(where("patId").is(patId).and("revision").is(revision));
+        Update refreshed = new Update()
+                .set("dictionaryVersion", version)
+                .set("triggerMask", mask);
+        mongoTemplate.updateFirst(latestRefresh, refreshed, PatientTriggers.class);
+    }
+
+    private long claimRefresh(String patId) {
+        PatientTriggers claimed = mongoTemplate.findAndModify(query(where("patId").is(patId)),
+                new Update().inc("revision", 1).unset("dictionaryVersion"),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                PatientTriggers.class);
+        return claimed.getRevision();
+    }
+
+    /**
+     * Reads the patient's mask, or scans the patient's notes here, so the caller never has to fetch them, when there
+     * is no mask built from the current dictionary: notes not reindexed yet, a refresh in progress, or a patient
+     * written before the index existed.
+     */
+    public PatientTriggersDTO findPatientTriggers(String patId) {
+        TriggerDictionary triggerDictionary = triggerDictionaryProvider.current();
+        String version = triggerDictionary.getVersion();
+        long mask = patientTriggersRepository.findById(patId)
+                .filter(patientTriggers -> version.equals(patientTriggers.getDictionaryVersion()))
+                .map(PatientTriggers::getTriggerMask)
+                .orElseGet(() -> scanPatient(patId, triggerDictionary));
+        return new PatientTriggersDTO(patId, version, mask, triggerDictionary.termsOf(mask));
+    }
+
+    /**
+     * Triggers of the patient for a caller's own terms: read from the index when they make up note-service's
+     * dictionary, matched here by scanning the patient's notes with the caller's dictionary otherwise. The last
+     * requested dictionary is kept compiled, callers usually sharing one.
+     *
+     * @throws IllegalArgumentException when the terms are empty or more than a mask holds
+     */
+    public PatientTriggersDTO findPatientTriggers(String patId, List<String> terms) {
+        TriggerDictionary requested = requestedDictionary(terms);
+        if (requested.getVersion().equals(getDictionaryVersion())) {
+            return findPatientTriggers(patId);
+        }
+        long mask = scanPatient(patId, requested);
+        return new PatientTriggersDTO(patId, requested.getVersion(), mask, requested.termsOf(mask));
+    }
+
+    private TriggerDictionary requestedDictionary(List<String> terms) {
+        RequestedDictionary last = lastRequested;
+        if (last != null && last.terms().equals(terms)) {
+            return last.dictionary();
+        }
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("Trigger terms cannot be empty");
+        }
+        TriggerDictionary dictionary = TriggerDictionary.of(terms);
+        lastRequested = new RequestedDictionary(List.copyOf(terms), dictionary);
+        return dictionary;
+    }
+
+    public String getDictionaryVersion() {
+        return triggerDictionaryProvider.current().getVersion();
+    }
+
+    private long scanPatient(String patId, TriggerDictionary triggerDictionary) {
+        long mask = 0;
+        for (NoteText note : noteRepository.findTextByPatId(patId)) {
+            mask |= triggerDictionary.maskOf(note.getNote());
+        }
+        return mask;
+    }
+
+    /**
+     * Reindexes the notes built from another dictionary than the current one. Each note is only updated if it still
+     * holds the version it was read with, and a run stops as soon as the dictionary is swapped again, leaving the
+     * remaining notes to the run the swap triggered.
+     */
+    @Async
+    @EventListener({ApplicationReadyEvent.class, TriggerDictionaryChangedEvent.class})
+    public void reindexStaleNotes() {
+        TriggerDictionary triggerDictionary = triggerDictionaryProvider.current();
+        String version = triggerDictionary.getVersion();
+        Set<String> patIds = new HashSet<>();
+        try (Stream<Note> notes = mongoTemplate.stream(query(where("triggerVersion").ne(version)), Note.class)) {
+            Iterator<Note> staleNotes = notes.iterator();
+            while (staleNotes.hasNext() && triggerDictionaryProvider.current() == triggerDictionary) {
+                Note note = staleNotes.next();
+                Query stillStale = query(where("id").is(note.getId()).and("triggerVersion").is(note.getTriggerVersion()));
+                Update indexed = new Update()
+                        .set("triggerMask", triggerDictionary.maskOf(note.getNote()))
+                        .set("triggerVersion", version);
+                mongoTemplate.updateFirst(stillStale, indexed, Note.class);
+                patIds.add(note.getPatId());
+            }
+        }
+        patIds.forEach(this::refreshPatient);
+        logger.info("trigger index updated to dictionary {}, {} patients reindexed", version, patIds.size());
+    }
+
+    private record RequestedDictionary(List<String> terms, TriggerDictionary dictionary) {
+    }
+}
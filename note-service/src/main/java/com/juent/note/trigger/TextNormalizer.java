@@ -0,0 +1,96 @@
+package com.juent.note.trigger;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Folds diacritics, lowercases, drops punctuation and collapses whitespace in a single pass.
+ * Output is identical to the former regex chain; characters whose folding depends on context
+ * (final sigma, characters outside the precomputed table, Turkish-like default locales)
+ * fall back to that chain.
+ */
+public final class TextNormalizer {
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{InCombiningDiacriticalMarks}+");
+    private static final Pattern PUNCTUATION = Pattern.compile("[^\\p{L}\\p{N}\\s]");
+    private static final Pattern WHITESPACES = Pattern.compile("\\s+");
+    private static final Set<String> CONTEXTUAL_LOCALES = Set.of("tr", "az", "lt");
+
+    private static final int TABLE_SIZE = 0x2070;
+    private static final char DROP = '\0';
+    private static final char WHITESPACE = ' ';
+    private static final char COMPLEX = '\uFFFF';
+    private static final char[] FOLDING = buildFoldingTable();
+
+    private TextNormalizer() {
+    }
+
+    public static String normalize(String text) {
+        if (text == null) return "";
+
+        StringBuilder out = new StringBuilder(text.length());
+        normalize(text, out);
+        return out.toString();
+    }
+
+    /**
+     * Appends the normalized form of {@code text} to {@code out}, which callers are expected to reuse.
+     */
+    public static void normalize(CharSequence text, StringBuilder out) {
+        if (text == null) return;
+
+        int start = out.length();
+        if (CONTEXTUAL_LOCALES.contains(Locale.getDefault().getLanguage())) {
+            out.append(normalizeWithRegex(text.toString(), Locale.getDefault()));
+            return;
+        }
+
+        boolean pendingSpace = false;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            char c = text.charAt(i);
+            char folded = c < TABLE_SIZE ? FOLDING[c] : COMPLEX;
+            if (folded == DROP) {
+                continue;
+            }
+            if (folded == WHITESPACE) {
+                pendingSpace = out.length() > start;
+                continue;
+            }
+            if (folded == COMPLEX) {
+                out.setLength(start);
+                out.append(normalizeWithRegex(text.toString(), Locale.getDefault()));
+                return;
+            }
+            if (pendingSpace) {
+                out.append(' ');
+                pendingSpace = false;
+            }
+            out.append(folded);
+        }
+    }
+
+    private static String normalizeWithRegex(String text, Locale locale) {
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        normalized = PUNCTUATION.matcher(normalized.toLowerCase(locale)).replaceAll("");
+        return WHITESPACES.matcher(normalized).replaceAll(" ").strip();
+    }
+
+    private static char[] buildFoldingTable() {
+        char[] table = new char[TABLE_SIZE];
+        for (char c = 0; c < TABLE_SIZE; c++) {
+            String single = String.valueOf(c);
+            if (WHITESPACES.matcher(single).matches()) {
+                table[c] = WHITESPACE;
+                continue;
+            }
+            String folded = normalizeWithRegex(single, Locale.ROOT);
+            if (c == 'Σ' || folded.length() > 1) {
+                table[c] = COMPLEX;
+            } else {
+                table[c] = folded.isEmpty() ? DROP : folded.charAt(0);
+            }
+        }
+        return table;
+    }
+}
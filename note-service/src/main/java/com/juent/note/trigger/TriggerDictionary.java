@@ -0,0 +1,72 @@
+package com.juent.note.trigger;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Trigger terms normalized and compiled once. Bit {@code i} of a trigger mask stands for term {@code i}.
+ * The version is a digest of the ordered normalized terms, computed the same way by diabetes-assessment-service,
+ * so both services can tell whether they agree on what a mask means.
+ */
+public final class TriggerDictionary {
+    private final List<String> terms;
+    private final TriggerMatcher matcher;
+    private final String version;
+
+    private TriggerDictionary(List<String> terms) {
+        if (terms.size() > Long.SIZE) {
+            throw new IllegalArgumentException("A trigger dictionary holds at most " + Long.SIZE + " terms");
+        }
+        this.terms = terms;
+        this.matcher = TriggerMatcher.compile(terms);
+        this.version = versionOf(terms);
+    }
+
+    public static TriggerDictionary of(Collection<String> terms) {
+        return new TriggerDictionary(terms.stream().map(TextNormalizer::normalize).toList());
+    }
+
+    public List<String> getTerms() {
+        return terms;
+    }
+
+    public TriggerMatcher getMatcher() {
+        return matcher;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public long maskOf(String text) {
+        return matcher.newScan().feed(TextNormalizer.normalize(text)).getMatchedMask();
+    }
+
+    public List<String> termsOf(long mask) {
+        List<String> matched = new ArrayList<>(Long.bitCount(mask));
+        for (int i = 0; i < terms.size(); i++) {
+            if ((mask & (1L << i)) != 0) {
+                matched.add(terms.get(i));
+            }
+        }
+        return matched;
+    }
+
+    private static String versionOf(List<String> terms) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String term : terms) {
+                digest.update(term.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+            }
+            return HexFormat.of().formatHex(digest.digest(), 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
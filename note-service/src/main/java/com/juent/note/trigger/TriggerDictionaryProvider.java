@@ -0,0 +1,88 @@
+package com.juent.note.trigger;
+
+import com.juent.note.event.TriggerDictionaryChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Trigger dictionary read from {@code trigger.dictionary.location}, one term per line, blank lines and lines starting
+ * with {@code #} being ignored. When the location is a file, it is polled and a changed dictionary is compiled off the
+ * request path then swapped in atomically: a request already running finishes with the dictionary it started with.
+ * A file that cannot be read or holds no term leaves the current dictionary in place.
+ */
+@Component
+public class TriggerDictionaryProvider {
+    private static final Logger logger = LoggerFactory.getLogger(TriggerDictionaryProvider.class);
+
+    private final Resource location;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AtomicReference<TriggerDictionary> current = new AtomicReference<>();
+    private long lastModified;
+
+    public TriggerDictionaryProvider(@Value("${trigger.dictionary.location}") Resource location,
+                                     ApplicationEventPublisher eventPublisher) {
+        this.location = location;
+        this.eventPublisher = eventPublisher;
+        try {
+            this.lastModified = location.isFile() ? location.lastModified() : 0L;
+            current.set(load());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read trigger dictionary " + location, e);
+        }
+        logger.info("loaded {} triggers from {}, version {}", current().getTerms().size(), location, current().getVersion());
+    }
+
+    public TriggerDictionary current() {
+        return current.get();
+    }
+
+    @Scheduled(fixedDelayString = "${trigger.dictionary.reload-interval}")
+    public void reloadIfChanged() {
+        if (!location.isFile()) {
+            return;
+        }
+        try {
+            long modified = location.lastModified();
+            if (modified == lastModified) {
+                return;
+            }
+            lastModified = modified;
+
+            TriggerDictionary reloaded = load();
+            if (!reloaded.getVersion().equals(current().getVersion())) {
+                current.set(reloaded);
+                logger.info("reloaded {} triggers from {}, version {}", reloaded.getTerms().size(), location, reloaded.getVersion());
+                eventPublisher.publishEvent(new TriggerDictionaryChangedEvent(reloaded.getVersion()));
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            logger.warn("keeping trigger dictionary {}: {}", current().getVersion(), e.getMessage());
+        }
+    }
+
+    private TriggerDictionary load() throws IOException {
+        List<String> terms;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(location.getInputStream(), StandardCharsets.UTF_8))) {
+            terms = reader.lines()
+                    .map(String::strip)
+                    .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                    .toList();
+        }
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("Trigger dictionary " + location + " holds no term");
+        }
+        return TriggerDictionary.of(terms);
+    }
+}
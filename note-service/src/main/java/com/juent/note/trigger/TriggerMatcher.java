@@ -0,0 +1,215 @@
+package com.juent.note.trigger;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeSet;
+
+/**
+ * Aho-Corasick automaton compiled once from a list of already normalized triggers.
+ * A single pass over the text reports every trigger it contains, whatever the number of triggers.
+ */
+public final class TriggerMatcher {
+    private static final int ROOT = 0;
+    private static final int UNKNOWN_SYMBOL = 0;
+    private static final int LATIN_1 = 256;
+
+    private final List<String> triggers;
+    private final char[] symbols;
+    private final int[] latinSymbols;
+    private final int width;
+    private final int[] transitions;
+    private final int[][] outputs;
+    private final boolean[] accepting;
+
+    private TriggerMatcher(List<String> triggers, char[] symbols, int[] transitions, int[][] outputs) {
+        this.triggers = triggers;
+        this.symbols = symbols;
+        this.width = symbols.length + 1;
+        this.transitions = transitions;
+        this.outputs = outputs;
+        this.accepting = new boolean[transitions.length];
+        for (int state = 0; state < outputs.length; state++) {
+            accepting[state * width] = outputs[state].length > 0;
+            for (int s = 0; s < width; s++) {
+                transitions[state * width + s] *= width;
+            }
+        }
+        this.latinSymbols = new int[LATIN_1];
+        for (int i = 0; i < symbols.length && symbols[i] < LATIN_1; i++) {
+            latinSymbols[symbols[i]] = i + 1;
+        }
+    }
+
+    public static TriggerMatcher compile(Collection<String> triggers) {
+        List<String> triggerList = List.copyOf(triggers);
+
+        TreeSet<Character> alphabet = new TreeSet<>();
+        for (String trigger : triggerList) {
+            for (int i = 0; i < trigger.length(); i++) {
+                alphabet.add(trigger.charAt(i));
+            }
+        }
+        char[] symbols = new char[alphabet.size()];
+        int index = 0;
+        for (Character symbol : alphabet) {
+            symbols[index++] = symbol;
+        }
+
+        List<Map<Character, Integer>> children = new ArrayList<>();
+        List<List<Integer>> matches = new ArrayList<>();
+        children.add(new HashMap<>());
+        matches.add(new ArrayList<>());
+
+        for (int t = 0; t < triggerList.size(); t++) {
+            String trigger = triggerList.get(t);
+            int state = ROOT;
+            for (int i = 0; i < trigger.length(); i++) {
+                Integer next = children.get(state).get(trigger.charAt(i));
+                if (next == null) {
+                    next = children.size();
+                    children.get(state).put(trigger.charAt(i), next);
+                    children.add(new HashMap<>());
+                    matches.add(new ArrayList<>());
+                }
+                state = next;
+            }
+            matches.get(state).add(t);
+        }
+
+        int stateCount = children.size();
+        int width = symbols.length + 1;
+        int[] transitions = new int[stateCount * width];
+        int[] failures = new int[stateCount];
+        Queue<Integer> queue = new ArrayDeque<>();
+
+        for (int s = 0; s < symbols.length; s++) {
+            Integer child = children.get(ROOT).get(symbols[s]);
+            if (child != null) {
+                transitions[ROOT * width + s + 1] = child;
+                failures[child] = ROOT;
+                queue.add(child);
+            }
+        }
+
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            matches.get(state).addAll(matches.get(failures[state]));
+            for (int s = 0; s < symbols.length; s++) {
+                Integer child = children.get(state).get(symbols[s]);
+                int fallback = transitions[failures[state] * width + s + 1];
+                if (child != null) {
+                    transitions[state * width + s + 1] = child;
+                    failures[child] = fallback;
+                    queue.add(child);
+                } else {
+                    transitions[state * width + s + 1] = fallback;
+                }
+            }
+        }
+
+        int[][] outputs = new int[stateCount][];
+        for (int state = 0; state < stateCount; state++) {
+            outputs[state] = matches.get(state).stream().distinct().mapToInt(Integer::intValue).toArray();
+        }
+
+        return new TriggerMatcher(triggerList, symbols, transitions, outputs);
+    }
+
+    public List<String> getTriggers() {
+        return triggers;
+    }
+
+    public int size() {
+        return triggers.size();
+    }
+
+    public int countDistinct(CharSequence text) {
+        return newScan().feed(text).getMatchedCount();
+    }
+
+    /**
+     * Starts a scan that can be fed chunk by chunk, the automaton state being carried from one chunk to the next.
+     */
+    public Scan newScan() {
+        return new Scan();
+    }
+
+    private static int record(int[] matched, boolean[] seen, int found) {
+        for (int trigger : matched) {
+            if (!seen[trigger]) {
+                seen[trigger] = true;
+                found++;
+            }
+        }
+        return found;
+    }
+
+    public final class Scan {
+        private final boolean[] seen = new boolean[triggers.size()];
+        private int offset = ROOT;
+        private int matchedCount;
+
+        private Scan() {
+            matchedCount = record(outputs[ROOT], seen, 0);
+        }
+
+        public Scan feed(CharSequence chunk) {
+            int[] transitions = TriggerMatcher.this.transitions;
+            boolean[] accepting = TriggerMatcher.this.accepting;
+            int state = offset;
+            int found = matchedCount;
+            for (int i = 0, length = chunk.length(); i < length && found < seen.length; i++) {
+                state = transitions[state + symbolOf(chunk.charAt(i))];
+                if (accepting[state]) {
+                    found = record(outputs[state / width], seen, found);
+                }
+            }
+            offset = state;
+            matchedCount = found;
+            return this;
+        }
+
+        /**
+         * Ends the text fed so far: the next chunk is matched from the start, so no trigger spans both texts.
+         */
+        public Scan endText() {
+            offset = ROOT;
+            return this;
+        }
+
+        public boolean isComplete() {
+            return matchedCount == seen.length;
+        }
+
+        public int getMatchedCount() {
+            return matchedCount;
+        }
+
+        /**
+         * Bit {@code i} is set when trigger {@code i} was seen. Only meaningful for at most 64 triggers.
+         */
+        public long getMatchedMask() {
+            long mask = 0;
+            for (int trigger = 0; trigger < seen.length; trigger++) {
+                if (seen[trigger]) {
+                    mask |= 1L << trigger;
+                }
+            }
+            return mask;
+        }
+    }
+
+    private int symbolOf(char c) {
+        if (c < LATIN_1) {
+            return latinSymbols[c];
+        }
+        int index = Arrays.binarySearch(symbols, c);
+        return index < 0 ? UNKNOWN_SYMBOL : index + 1;
+    }
+}
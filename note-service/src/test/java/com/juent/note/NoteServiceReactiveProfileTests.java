@@ -0,0 +1,45 @@
+package com.juent.note;
+
+import com.juent.note.controller.NoteController;
+import com.juent.note.controller.ReactiveNoteController;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("reactive")
+class NoteServiceReactiveProfileTests {
+
+	@Autowired
+	private ApplicationContext context;
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@Test
+	void contextLoadsReactiveStack() {
+		assertEquals(1, context.getBeanNamesForType(ReactiveNoteController.class).length);
+		assertEquals(0, context.getBeanNamesForType(NoteController.class).length);
+	}
+
+	@Test
+	void contextHasOneBlockingAndOneReactiveMongoClient() {
+		assertEquals(List.of("mongoClient"), List.of(context.getBeanNamesForType(com.mongodb.client.MongoClient.class)));
+		assertEquals(1, context.getBeanNamesForType(com.mongodb.reactivestreams.client.MongoClient.class).length);
+	}
+
+	@Test
+	void requestWithoutInternalAuthHeader_shouldBeUnauthorized() {
+		webTestClient.get().uri("/api/note/12345")
+				.exchange()
+				.expectStatus().isUnauthorized();
+	}
+
+}
@@ -0,0 +1,106 @@
+package com.juent.note.benchmark;
+
+import com.juent.note.DTO.NoteDTO;
+import com.juent.note.configuration.MongoIndexInitializer;
+import com.juent.note.model.Note;
+import com.juent.note.model.PatientTriggers;
+import com.juent.note.repository.NoteRepository;
+import com.juent.note.repository.PatientTriggersRepository;
+import com.juent.note.service.NoteBulkService;
+import com.juent.note.service.NoteService;
+import com.juent.note.service.TriggerIndexService;
+import com.juent.note.trigger.TriggerDictionaryProvider;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to ingest {@code notes} notes spread over 100 patients, one {@code saveNote} at a time as the single-note
+ * endpoint does, against one bulk import. Needs the MongoDB given by MONGODB_HOST / MONGODB_PORT; the
+ * benchmark database is dropped before each iteration. Throughput is {@code notes / score}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class NoteIngestionBenchmark {
+
+    private static final String DATABASE = "note_ingestion_benchmark";
+
+    @Param({"10000"})
+    private int notes;
+
+    @Param({"1000"})
+    private int batchSize;
+
+    private MongoClient mongoClient;
+    private MongoTemplate mongoTemplate;
+    private NoteService noteService;
+    private NoteBulkService noteBulkService;
+    private List<NoteDTO> noteDTOs;
+
+    @Setup
+    public void setUp() {
+        String host = System.getenv().getOrDefault("MONGODB_HOST", "localhost");
+        String port = System.getenv().getOrDefault("MONGODB_PORT", "27017");
+        mongoClient = MongoClients.create("mongodb://" + host + ":" + port);
+        mongoTemplate = new MongoTemplate(mongoClient, DATABASE);
+
+        MongoRepositoryFactory repositories = new MongoRepositoryFactory(mongoTemplate);
+        NoteRepository noteRepository = repositories.getRepository(NoteRepository.class);
+        TriggerIndexService triggerIndexService = new TriggerIndexService(new TriggerDictionaryProvider(new ClassPathResource("triggers.txt"), event -> {}),
+                noteRepository, repositories.getRepository(PatientTriggersRepository.class), mongoTemplate);
+        noteService = new NoteService(noteRepository, triggerIndexService, mongoTemplate, event -> {}, 1000);
+        noteBulkService = new NoteBulkService(mongoTemplate, triggerIndexService, event -> {}, batchSize);
+
+        noteDTOs = new ArrayList<>(notes);
+        for (int i = 0; i < notes; i++) {
+            noteDTOs.add(new NoteDTO(String.valueOf(i % 100), "Doe",
+                    "Le patient déclare qu'il fume depuis peu. Poids en hausse, vertiges. Visite " + i + "."));
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void emptyDatabase() {
+        mongoTemplate.dropCollection(Note.class);
+        mongoTemplate.dropCollection(PatientTriggers.class);
+        new MongoIndexInitializer(mongoTemplate).ensureIndexes(Note.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        mongoClient.getDatabase(DATABASE).drop();
+        mongoClient.close();
+    }
+
+    @Benchmark
+    public int singleNote() {
+        for (NoteDTO noteDTO : noteDTOs) {
+            noteService.saveNote(noteDTO);
+        }
+        return noteDTOs.size();
+    }
+
+    @Benchmark
+    public int bulk() {
+        return noteBulkService.insertNotes(noteDTOs.iterator()).getCreated();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(NoteIngestionBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
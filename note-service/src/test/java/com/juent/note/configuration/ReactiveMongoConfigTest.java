@@ -0,0 +1,34 @@
+package com.juent.note.configuration;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReactiveMongoConfigTest {
+
+    @Test
+    public void blockingClientSettings_shouldSizePoolAndKeepConnectionString() {
+        MongoClientSettings settings = ReactiveMongoConfig.blockingClientSettings(
+                new ConnectionString("mongodb://mongo:27018/notes"), 20, Duration.ofSeconds(2));
+
+        assertEquals(20, settings.getConnectionPoolSettings().getMaxSize());
+        assertEquals(0, settings.getConnectionPoolSettings().getMinSize());
+        assertEquals(2000, settings.getConnectionPoolSettings().getMaxWaitTime(TimeUnit.MILLISECONDS));
+        assertEquals("mongo:27018", settings.getClusterSettings().getHosts().getFirst().toString());
+    }
+
+    @Test
+    public void reactivePoolCustomizer_shouldSizeReactivePool() {
+        MongoClientSettings.Builder builder = MongoClientSettings.builder();
+
+        new ReactiveMongoConfig().reactivePoolCustomizer(100, Duration.ofSeconds(2)).customize(builder);
+
+        assertEquals(100, builder.build().getConnectionPoolSettings().getMaxSize());
+        assertEquals(2000, builder.build().getConnectionPoolSettings().getMaxWaitTime(TimeUnit.MILLISECONDS));
+    }
+}
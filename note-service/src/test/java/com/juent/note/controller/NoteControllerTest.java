@@ -1,19 +1,49 @@
 package com.juent.note.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.juent.note.DTO.NoteBulkResultDTO;
 import com.juent.note.DTO.NoteDTO;
+import com.juent.note.DTO.NotePageDTO;
+import com.juent.note.DTO.PatientTriggersDTO;
+import com.juent.note.configuration.SmileConfig;
 import com.juent.note.model.Note;
+import com.juent.note.repository.NoteBody;
+import com.juent.note.repository.NoteText;
+import com.juent.note.service.NoteBulkService;
 import com.juent.note.service.NoteService;
 import org.junit.jupiter.api.*;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.http.HttpStatus.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 public class NoteControllerTest {
 
@@ -25,6 +55,9 @@ public class NoteControllerTest {
     @Mock
     private NoteService noteService;
 
+    @Mock
+    private NoteBulkService noteBulkService;
+
     private Note note;
     private NoteDTO noteDTO;
 
@@ -73,6 +106,95 @@ public class NoteControllerTest {
         verify(noteService, times(1)).findAllNotes();
     }
 
+    @Test
+    public void getNotesPage_shouldReturnPageAndNextCursor() {
+        NotePageDTO page = new NotePageDTO(List.of(note), "1");
+        when(noteService.findNotesPage(null, 1)).thenReturn(page);
+
+        ResponseEntity<NotePageDTO> response = noteController.getNotesPage(null, 1);
+
+        assertEquals(OK, response.getStatusCode());
+        assertEquals(page, response.getBody());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void streamNotes_shouldWriteOneNotePerLineWithoutTriggerFields() throws IOException {
+        note.setTriggerMask(0b11L);
+        doAnswer(invocation -> {
+            Consumer<Note> action = invocation.getArgument(0);
+            action.accept(note);
+            action.accept(note);
+            return null;
+        }).when(noteService).forEachNote(any(Consumer.class));
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        ResponseEntity<StreamingResponseBody> response = new NoteController(noteService, noteBulkService, objectMapper).streamNotes();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertNotNull(response.getBody());
+        response.getBody().writeTo(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("Test note", objectMapper.readTree(lines[0]).get("note").asText());
+        assertFalse(objectMapper.readTree(lines[1]).has("triggerMask"));
+    }
+
+    @Test
+    public void getNoteTextsByPatId_shouldSerializeOnlyNoteText() throws IOException {
+        NoteText text = new SpelAwareProxyProjectionFactory().createProjection(NoteText.class, note);
+        when(noteService.findNoteTextsByPatId("1")).thenReturn(List.of(text));
+
+        ResponseEntity<List<NoteText>> response = noteController.getNoteTextsByPatId("1");
+
+        assertEquals(OK, response.getStatusCode());
+        assertEquals("[{\"note\":\"Test note\"}]", new ObjectMapper().writeValueAsString(response.getBody()));
+    }
+
+    @Test
+    public void getNoteBodiesByPatIds_shouldSerializePatIdAndNoteText() throws IOException {
+        NoteBody body = new SpelAwareProxyProjectionFactory().createProjection(NoteBody.class, note);
+        when(noteService.findNoteBodiesByPatIds(List.of("1"))).thenReturn(List.of(body));
+
+        ResponseEntity<List<NoteBody>> response = noteController.getNoteBodiesByPatIds(List.of("1"));
+
+        assertEquals(OK, response.getStatusCode());
+        JsonNode json = new ObjectMapper().valueToTree(response.getBody()).get(0);
+        assertEquals(2, json.size());
+        assertEquals("12345", json.get("patId").asText());
+        assertEquals("Test note", json.get("note").asText());
+    }
+
+    @Test
+    public void getNoteBodiesByPatIds_shouldAnswerSmile_onlyWhenAccepted() throws Exception {
+        NoteBody body = new SpelAwareProxyProjectionFactory().createProjection(NoteBody.class, note);
+        when(noteService.findNoteBodiesByPatIds(List.of("1"))).thenReturn(List.of(body));
+        ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(noteController)
+                .setMessageConverters(new MappingJackson2HttpMessageConverter(),
+                        new SmileConfig().smileHttpMessageConverter(Jackson2ObjectMapperBuilder.json()))
+                .addInterceptors(new SmileConfig.VaryByAcceptInterceptor())
+                .build();
+
+        byte[] smile = mockMvc.perform(post("/api/note/batch/texts")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"1\"]")
+                        .accept(SmileConfig.APPLICATION_SMILE, MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(SmileConfig.APPLICATION_SMILE))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals("Test note", smileMapper.readTree(smile).get(0).get("note").asText());
+
+        mockMvc.perform(post("/api/note/batch/texts")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"1\"]")
+                        .accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+    }
+
     @Test
     public void getAllNoteByPatId_shouldReturnNote() {
         when(noteService.findAllNoteByPatId("1")).thenReturn(List.of(note));
@@ -85,6 +207,29 @@ public class NoteControllerTest {
         verify(noteService, times(1)).findAllNoteByPatId("1");
     }
 
+    @Test
+    public void getAllNoteByPatIds_shouldReturnNotesOfAllPatients() {
+        when(noteService.findAllNoteByPatIds(List.of("12345"))).thenReturn(List.of(note));
+
+        ResponseEntity<List<Note>> response = noteController.getAllNoteByPatIds(List.of("12345"));
+
+        assertEquals(OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals("12345", response.getBody().getFirst().getPatId());
+        verify(noteService, times(1)).findAllNoteByPatIds(List.of("12345"));
+    }
+
+    @Test
+    public void getTriggersByPatId_shouldReturnTriggerMask() {
+        PatientTriggersDTO triggers = new PatientTriggersDTO("12345", "version", 0b11L, List.of("hemoglobine a1c", "microalbumine"));
+        when(noteService.findTriggersByPatId("12345", "version")).thenReturn(triggers);
+
+        ResponseEntity<PatientTriggersDTO> response = noteController.getTriggersByPatId("12345", "version");
+
+        assertEquals(OK, response.getStatusCode());
+        assertEquals(triggers, response.getBody());
+    }
+
     @Test
     public void insertNote_shouldReturnCreatedNote() {
         when(noteService.saveNote(noteDTO)).thenReturn(noteDTO);
@@ -97,6 +242,23 @@ public class NoteControllerTest {
         verify(noteService, times(1)).saveNote(noteDTO);
     }
 
+    @Test
+    public void insertNotes_shouldReadJsonArrayAndNdjsonAlike() throws IOException {
+        List<String> read = new ArrayList<>();
+        when(noteBulkService.insertNotes(any())).thenAnswer(invocation -> {
+            Iterator<NoteDTO> notes = invocation.getArgument(0);
+            notes.forEachRemaining(noteDTO -> read.add(noteDTO.getPatId()));
+            return new NoteBulkResultDTO(read.size(), 0, 0, List.of());
+        });
+        NoteController controller = new NoteController(noteService, noteBulkService, new ObjectMapper());
+
+        controller.insertNotes(body("[{\"patId\":\"1\",\"note\":\"a\"},{\"patId\":\"2\",\"note\":\"b\"}]"));
+        ResponseEntity<NoteBulkResultDTO> response = controller.insertNotes(body("{\"patId\":\"3\",\"note\":\"c\"}\n{\"patId\":\"4\",\"note\":\"d\"}\n"));
+
+        assertEquals(OK, response.getStatusCode());
+        assertEquals(List.of("1", "2", "3", "4"), read);
+    }
+
     @Test
     public void updateNote_shouldReturnUpdatedNote() {
         when(noteService.updateNote(noteDTO, "1")).thenReturn(noteDTO);
@@ -117,4 +279,8 @@ public class NoteControllerTest {
         assertEquals(NO_CONTENT, response.getStatusCode());
         verify(noteService, times(1)).deleteNoteById("1");
     }
+
+    private static InputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
 }
@@ -0,0 +1,226 @@
+package com.juent.note.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.juent.note.DTO.NoteBulkResultDTO;
+import com.juent.note.DTO.NoteDTO;
+import com.juent.note.DTO.NotePageDTO;
+import com.juent.note.configuration.SmileConfig;
+import com.juent.note.exception.GlobalExceptionHandler;
+import com.juent.note.model.Note;
+import com.juent.note.repository.NoteBody;
+import com.juent.note.repository.NoteRepository;
+import com.juent.note.repository.PatientTriggersRepository;
+import com.juent.note.repository.ReactiveNoteRepository;
+import com.juent.note.service.NoteBulkService;
+import com.juent.note.service.NoteService;
+import com.juent.note.service.TriggerIndexService;
+import com.juent.note.trigger.TriggerDictionary;
+import com.juent.note.trigger.TriggerDictionaryProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.http.HttpStatus.*;
+
+public class ReactiveNoteControllerTest {
+
+    private AutoCloseable mock;
+
+    @InjectMocks
+    private ReactiveNoteController reactiveNoteController;
+
+    @Mock
+    private ReactiveNoteRepository reactiveNoteRepository;
+
+    @Mock
+    private NoteService noteService;
+
+    @Mock
+    private NoteBulkService noteBulkService;
+
+    private Note note;
+
+    @BeforeEach
+    public void init() {
+        mock = MockitoAnnotations.openMocks(this);
+        note = new Note();
+        note.setId("1");
+        note.setPatId("12345");
+        note.setPatient("John Doe");
+        note.setNote("Test note");
+    }
+
+    @AfterEach
+    public void close() throws Exception {
+        if (mock != null) {
+            mock.close();
+        }
+    }
+
+    @Test
+    public void getAllNotes_shouldReturnNotFoundWhenEmpty() {
+        when(reactiveNoteRepository.findAll()).thenReturn(Flux.empty());
+
+        StepVerifier.create(reactiveNoteController.getAllNotes())
+                .assertNext(response -> assertEquals(NOT_FOUND, response.getStatusCode()))
+                .verifyComplete();
+    }
+
+    @Test
+    public void streamNotes_shouldReadNotesOrderedById() {
+        when(reactiveNoteRepository.findAll(Sort.by("id"))).thenReturn(Flux.just(note, note));
+
+        StepVerifier.create(reactiveNoteController.streamNotes())
+                .expectNext(note, note)
+                .verifyComplete();
+    }
+
+    @Test
+    public void getAllNoteByPatId_shouldStreamFromReactiveRepository() {
+        when(reactiveNoteRepository.findAllByPatId("12345")).thenReturn(Flux.just(note));
+
+        StepVerifier.create(reactiveNoteController.getAllNoteByPatId("12345"))
+                .expectNext(note)
+                .verifyComplete();
+        verifyNoInteractions(noteService);
+    }
+
+    @Test
+    public void getNotesPage_shouldRunBlockingServiceOffTheCallerThread() {
+        Thread caller = Thread.currentThread();
+        List<Thread> serviceThreads = new ArrayList<>();
+        NotePageDTO page = new NotePageDTO(List.of(note), null);
+        when(noteService.findNotesPage(null, 1)).thenAnswer(invocation -> {
+            serviceThreads.add(Thread.currentThread());
+            return page;
+        });
+
+        StepVerifier.create(reactiveNoteController.getNotesPage(null, 1))
+                .expectNext(page)
+                .verifyComplete();
+        assertNotEquals(caller, serviceThreads.getFirst());
+        assertTrue(serviceThreads.getFirst().getName().startsWith("boundedElastic"));
+    }
+
+    @Test
+    public void insertNotes_shouldHandDecodedNotesToBulkService() {
+        List<String> read = new ArrayList<>();
+        when(noteBulkService.insertNotes(any())).thenAnswer(invocation -> {
+            Iterator<NoteDTO> notes = invocation.getArgument(0);
+            notes.forEachRemaining(dto -> read.add(dto.getNote()));
+            return new NoteBulkResultDTO(read.size(), 0, 0, List.of());
+        });
+        NoteDTO first = new NoteDTO();
+        first.setNote("first");
+        NoteDTO second = new NoteDTO();
+        second.setNote("second");
+
+        StepVerifier.create(reactiveNoteController.insertNotes(Flux.just(first, second)))
+                .assertNext(result -> assertEquals(2, result.getCreated()))
+                .verifyComplete();
+        assertEquals(List.of("first", "second"), read);
+    }
+
+    @Test
+    public void deleteNoteById_shouldReturnNoContent() {
+        StepVerifier.create(reactiveNoteController.deleteNoteById("1"))
+                .assertNext(response -> assertEquals(NO_CONTENT, response.getStatusCode()))
+                .verifyComplete();
+        verify(noteService, times(1)).deleteNoteById("1");
+    }
+
+    @Test
+    public void getNoteBodiesByPatIds_shouldStreamSmileArray_whenAccepted() throws Exception {
+        NoteBody body = new SpelAwareProxyProjectionFactory().createProjection(NoteBody.class, note);
+        when(reactiveNoteRepository.findBodyByPatIdIn(List.of("12345", "67890"))).thenReturn(Flux.just(body, body));
+        WebTestClient webTestClient = WebTestClient.bindToController(reactiveNoteController)
+                .httpMessageCodecs(new SmileConfig().smileCodecCustomizer(Jackson2ObjectMapperBuilder.json())::customize)
+                .webFilter(new SmileConfig.VaryByAcceptWebFilter())
+                .build();
+
+        byte[] smile = webTestClient.post().uri("/api/note/batch/texts")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of("12345", "67890"))
+                .accept(MediaType.parseMediaType(SmileConfig.APPLICATION_SMILE), MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(SmileConfig.APPLICATION_SMILE)
+                .expectHeader().valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                .expectBody().returnResult().getResponseBody();
+
+        JsonNode notes = new ObjectMapper(new SmileFactory()).readTree(smile);
+        assertEquals(2, notes.size());
+        assertEquals("12345", notes.get(1).get("patId").asText());
+        assertEquals("Test note", notes.get(1).get("note").asText());
+    }
+
+    @Test
+    public void getNoteBodiesByPatIds_shouldReturnBadRequest_whenBatchAboveMaxSize() {
+        NoteService realNoteService = new NoteService(mock(NoteRepository.class), mock(TriggerIndexService.class),
+                mock(MongoTemplate.class), event -> {}, 1);
+        WebTestClient webTestClient = WebTestClient.bindToController(
+                        new ReactiveNoteController(reactiveNoteRepository, realNoteService, noteBulkService))
+                .controllerAdvice(new GlobalExceptionHandler())
+                .build();
+
+        webTestClient.post().uri("/api/note/batch/texts")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of("12345", "67890"))
+                .exchange()
+                .expectStatus().isBadRequest();
+        verifyNoInteractions(reactiveNoteRepository);
+    }
+
+    @Test
+    public void getTriggersByPatIdForTerms_shouldMatchCallerTerms_whenNoteServiceUsesAnotherDictionary() {
+        NoteRepository noteRepository = mock(NoteRepository.class);
+        PatientTriggersRepository patientTriggersRepository = mock(PatientTriggersRepository.class);
+        TriggerIndexService triggerIndexService = new TriggerIndexService(
+                new TriggerDictionaryProvider(new ClassPathResource("triggers.txt"), event -> {}),
+                noteRepository, patientTriggersRepository, mock(MongoTemplate.class));
+        NoteService realNoteService = new NoteService(noteRepository, triggerIndexService, mock(MongoTemplate.class), event -> {}, 1000);
+        when(noteRepository.findTextByPatId("12345")).thenReturn(List.of(() -> "Vertiges et essoufflement, poids stable."));
+        List<String> callerTerms = List.of("essoufflement", "vertige");
+        WebTestClient webTestClient = WebTestClient.bindToController(
+                        new ReactiveNoteController(reactiveNoteRepository, realNoteService, noteBulkService))
+                .controllerAdvice(new GlobalExceptionHandler())
+                .build();
+
+        webTestClient.get().uri("/api/note/12345/triggers?version={version}", TriggerDictionary.of(callerTerms).getVersion())
+                .exchange()
+                .expectStatus().isEqualTo(CONFLICT);
+
+        webTestClient.post().uri("/api/note/12345/triggers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(callerTerms)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.dictionaryVersion").isEqualTo(TriggerDictionary.of(callerTerms).getVersion())
+                .jsonPath("$.triggerMask").isEqualTo(0b11)
+                .jsonPath("$.triggers[0]").isEqualTo("essoufflement")
+                .jsonPath("$.triggers[1]").isEqualTo("vertige");
+        verifyNoInteractions(patientTriggersRepository);
+    }
+}
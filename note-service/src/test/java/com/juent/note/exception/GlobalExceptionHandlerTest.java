@@ -41,6 +41,18 @@ public class GlobalExceptionHandlerTest {
         assertTrue(response.getBody().containsKey("status"));
     }
 
+    @Test
+    void handleTriggerDictionaryMismatch_shouldReturn409Response() {
+        TriggerDictionaryMismatchException exception = new TriggerDictionaryMismatchException("old", "new");
+
+        ResponseEntity<Map<String, Object>> response = handler.handleTriggerDictionaryMismatch(exception);
+
+        assertEquals(409, response.getStatusCode().value());
+        assertNotNull(response.getBody());
+        assertEquals("Trigger Dictionary Mismatch", response.getBody().get("error"));
+        assertEquals("Trigger dictionary old requested but note-service uses new.", response.getBody().get("message"));
+    }
+
     @Test
     void handleGlobalException_shouldReturn500Response() {
         Exception exception = new Exception("Unexpected failure");
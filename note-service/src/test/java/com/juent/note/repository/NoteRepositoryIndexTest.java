@@ -0,0 +1,111 @@
+package com.juent.note.repository;
+
+import com.juent.note.configuration.MongoIndexInitializer;
+import com.juent.note.model.Note;
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.bson.Document;
+import org.junit.jupiter.api.*;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs the note lookup of every assessment against a throwaway MongoDB started with Testcontainers, or, without
+ * Docker, against the server given by MONGODB_HOST / MONGODB_PORT, and checks the winning plan. Skipped when
+ * neither is available.
+ */
+public class NoteRepositoryIndexTest {
+
+    private static final String DATABASE = "note_index_test";
+
+    private static MongoDBContainer container;
+    private static String connectionString;
+
+    private MongoClient mongoClient;
+    private MongoTemplate mongoTemplate;
+
+    @BeforeAll
+    public static void startMongo() {
+        if (DockerClientFactory.instance().isDockerAvailable()) {
+            container = new MongoDBContainer(DockerImageName.parse("mongo:7.0"));
+            container.start();
+            connectionString = container.getConnectionString();
+        } else {
+            connectionString = "mongodb://" + System.getenv().getOrDefault("MONGODB_HOST", "localhost")
+                    + ":" + System.getenv().getOrDefault("MONGODB_PORT", "27017");
+        }
+    }
+
+    @AfterAll
+    public static void stopMongo() {
+        if (container != null) {
+            container.stop();
+        }
+    }
+
+    @BeforeEach
+    public void init() {
+        mongoClient = MongoClients.create(MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(connectionString))
+                .applyToClusterSettings(cluster -> cluster.serverSelectionTimeout(2, TimeUnit.SECONDS))
+                .build());
+        mongoTemplate = new MongoTemplate(mongoClient, DATABASE);
+        assumeTrue(isReachable(), "No Docker and no MongoDB server at " + connectionString);
+    }
+
+    @AfterEach
+    public void close() {
+        if (mongoClient != null) {
+            if (isReachable()) {
+                mongoClient.getDatabase(DATABASE).drop();
+            }
+            mongoClient.close();
+        }
+    }
+
+    @Test
+    public void findAllByPatId_shouldUseIndexScan() {
+        new MongoIndexInitializer(mongoTemplate).ensureIndexes(Note.class);
+        for (int i = 0; i < 100; i++) {
+            mongoTemplate.insert(new Note(null, String.valueOf(i % 10), "Doe", "Note " + i, 0L, null));
+        }
+
+        Document explain = mongoTemplate.getCollection("notes")
+                .find(new Document("patId", "3"))
+                .explain();
+        Document winningPlan = explain.get("queryPlanner", Document.class).get("winningPlan", Document.class);
+
+        assertTrue(winningPlan.toJson().contains("IXSCAN"), winningPlan.toJson());
+        assertFalse(winningPlan.toJson().contains("COLLSCAN"), winningPlan.toJson());
+        assertEquals(10, mongoTemplate.getCollection("notes").countDocuments(new Document("patId", "3")));
+    }
+
+    @Test
+    public void ensureIndexes_shouldReportNothingMissing_onSecondRun() {
+        new MongoIndexInitializer(mongoTemplate).ensureIndexes(Note.class);
+
+        MongoIndexInitializer.IndexReport report = new MongoIndexInitializer(mongoTemplate).ensureIndexes(Note.class);
+
+        assertEquals(List.of(), report.missing());
+        assertEquals(List.of(), report.extra());
+    }
+
+    private boolean isReachable() {
+        try {
+            mongoClient.getDatabase("admin").runCommand(new Document("ping", 1));
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+}
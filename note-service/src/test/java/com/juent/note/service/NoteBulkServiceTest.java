@@ -0,0 +1,146 @@
+package com.juent.note.service;
+
+import com.juent.note.DTO.NoteBulkResultDTO;
+import com.juent.note.DTO.NoteDTO;
+import com.juent.note.enums.BulkItemStatusEnum;
+import com.juent.note.event.NoteChangedEvent;
+import com.juent.note.model.Note;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.*;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class NoteBulkServiceTest {
+
+    private AutoCloseable mock;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @Mock
+    private TriggerIndexService triggerIndexService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private NoteBulkService noteBulkService;
+
+    @BeforeEach
+    public void init() {
+        mock = MockitoAnnotations.openMocks(this);
+
+        when(mongoTemplate.bulkOps(BulkMode.UNORDERED, Note.class)).thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
+        noteBulkService = new NoteBulkService(mongoTemplate, triggerIndexService, eventPublisher, 2);
+    }
+
+    @AfterEach
+    public void close() throws Exception {
+        if (mock != null) {
+            mock.close();
+        }
+    }
+
+    @Test
+    public void insertNotes_shouldWriteUnorderedBatchesAndRefreshEachPatientOnce() {
+        List<NoteDTO> notes = List.of(note("1"), note("1"), note("2"), note("1"), note("3"));
+
+        NoteBulkResultDTO result = noteBulkService.insertNotes(notes.iterator());
+
+        assertEquals(5, result.getCreated());
+        assertEquals(0, result.getRejected() + result.getFailed());
+        assertTrue(result.getItems().stream().allMatch(item -> item.getId() != null));
+        assertEquals(List.of(0, 1, 2, 3, 4), result.getItems().stream().map(item -> item.getIndex()).toList());
+        verify(mongoTemplate, times(3)).bulkOps(BulkMode.UNORDERED, Note.class);
+        verify(bulkOperations, times(3)).execute();
+        verify(triggerIndexService, times(5)).index(any(Note.class));
+        verify(triggerIndexService, times(1)).refreshPatient("1");
+        verify(triggerIndexService, times(1)).refreshPatient("2");
+        verify(triggerIndexService, times(1)).refreshPatient("3");
+        verify(eventPublisher, times(3)).publishEvent(any(NoteChangedEvent.class));
+    }
+
+    @Test
+    public void insertNotes_shouldRejectIncompleteNotesAndKeepGoing() {
+        List<NoteDTO> notes = List.of(note("1"), new NoteDTO(null, "Doe", "text"), new NoteDTO("1", "Doe", " "), note("1"));
+
+        NoteBulkResultDTO result = noteBulkService.insertNotes(notes.iterator());
+
+        assertEquals(2, result.getCreated());
+        assertEquals(2, result.getRejected());
+        assertEquals(BulkItemStatusEnum.REJECTED, result.getItems().get(1).getStatus());
+        assertEquals("Missing patId", result.getItems().get(1).getError());
+        assertEquals("Missing note", result.getItems().get(2).getError());
+        verify(bulkOperations, times(1)).execute();
+    }
+
+    @Test
+    public void insertNotes_shouldReportItemsMongoRefused() {
+        BulkOperationException refused = mock(BulkOperationException.class);
+        when(refused.getErrors()).thenReturn(List.of(new BulkWriteError(11000, "duplicate key", new BsonDocument(), 1)));
+        when(bulkOperations.execute()).thenThrow(refused);
+
+        NoteBulkResultDTO result = noteBulkService.insertNotes(List.of(note("1"), note("2")).iterator());
+
+        assertEquals(1, result.getCreated());
+        assertEquals(1, result.getFailed());
+        assertEquals(BulkItemStatusEnum.FAILED, result.getItems().get(1).getStatus());
+        assertEquals("duplicate key", result.getItems().get(1).getError());
+        verify(triggerIndexService, times(1)).refreshPatient("1");
+        verify(triggerIndexService, never()).refreshPatient("2");
+    }
+
+    @Test
+    public void insertNotes_shouldWriteNotesReadBeforeAnUnreadableItem() {
+        Iterator<NoteDTO> notes = new Iterator<>() {
+            private int read;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public NoteDTO next() {
+                if (read++ == 0) {
+                    return note("1");
+                }
+                throw new NoSuchElementException("Unexpected character");
+            }
+        };
+
+        NoteBulkResultDTO result = noteBulkService.insertNotes(notes);
+
+        assertEquals(1, result.getCreated());
+        assertEquals(1, result.getRejected());
+        assertEquals(1, result.getItems().get(1).getIndex());
+        verify(bulkOperations, times(1)).execute();
+        verify(triggerIndexService, times(1)).refreshPatient("1");
+    }
+
+    @Test
+    public void constructor_shouldRejectNonPositiveBatchSize() {
+        assertThrows(IllegalArgumentException.class, () -> new NoteBulkService(mongoTemplate, triggerIndexService, eventPublisher, 0));
+    }
+
+    private static NoteDTO note(String patId) {
+        return new NoteDTO(patId, "Doe", "Le patient fume.");
+    }
+}
@@ -1,17 +1,28 @@
 package com.juent.note.service;
 
 import com.juent.note.DTO.NoteDTO;
+import com.juent.note.DTO.NotePageDTO;
+import com.juent.note.DTO.PatientTriggersDTO;
+import com.juent.note.event.NoteChangedEvent;
 import com.juent.note.exception.NoteNotFoundException;
+import com.juent.note.exception.TriggerDictionaryMismatchException;
 import com.juent.note.model.Note;
+import com.juent.note.repository.NoteBody;
 import com.juent.note.repository.NoteRepository;
+import com.juent.note.repository.NoteText;
 import org.junit.jupiter.api.*;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -20,18 +31,27 @@ public class NoteServiceTest {
 
     private AutoCloseable mock;
 
-    @InjectMocks
     private NoteService noteService;
 
     @Mock
     private NoteRepository noteRepository;
 
+    @Mock
+    private TriggerIndexService triggerIndexService;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     private Note note;
     private NoteDTO noteDTO;
 
     @BeforeEach
     public void init() {
         mock = MockitoAnnotations.openMocks(this);
+        noteService = new NoteService(noteRepository, triggerIndexService, mongoTemplate, eventPublisher, 2);
 
         note = new Note();
         note.setId("1");
@@ -63,6 +83,71 @@ public class NoteServiceTest {
         verify(noteRepository, times(1)).findAll();
     }
 
+    @Test
+    public void findNotesPage_shouldReturnNextCursor_whenMoreNotesFollow() {
+        Note second = new Note();
+        second.setId("65f1c0a2b3c4d5e6f7a8b9c2");
+        Note third = new Note();
+        third.setId("65f1c0a2b3c4d5e6f7a8b9c3");
+        when(noteRepository.findByIdGreaterThanOrderByIdAsc("65f1c0a2b3c4d5e6f7a8b9c1", Limit.of(2)))
+                .thenReturn(List.of(second, third));
+
+        NotePageDTO page = noteService.findNotesPage("65f1c0a2b3c4d5e6f7a8b9c1", 1);
+
+        assertEquals(List.of(second), page.getNotes());
+        assertEquals("65f1c0a2b3c4d5e6f7a8b9c2", page.getNextCursor());
+    }
+
+    @Test
+    public void findNotesPage_shouldReturnNoCursor_onLastPage() {
+        when(noteRepository.findAllByOrderByIdAsc(Limit.of(11))).thenReturn(List.of(note));
+
+        NotePageDTO page = noteService.findNotesPage(null, 10);
+
+        assertEquals(List.of(note), page.getNotes());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    public void findNotesPage_shouldRejectInvalidLimitOrCursor() {
+        assertThrows(IllegalArgumentException.class, () -> noteService.findNotesPage(null, 0));
+        assertThrows(IllegalArgumentException.class, () -> noteService.findNotesPage(null, NoteService.MAX_PAGE_SIZE + 1));
+        assertThrows(IllegalArgumentException.class, () -> noteService.findNotesPage("not-an-id", 10));
+        verifyNoInteractions(noteRepository);
+    }
+
+    @Test
+    public void forEachNote_shouldHandEveryNoteReadFromCursor() {
+        when(mongoTemplate.stream(any(Query.class), eq(Note.class))).thenReturn(Stream.of(note, note));
+        List<Note> seen = new ArrayList<>();
+
+        noteService.forEachNote(seen::add);
+
+        assertEquals(2, seen.size());
+    }
+
+    @Test
+    public void findNoteTextsByPatId_shouldReturnProjectedNotes() {
+        NoteText text = () -> "Test note";
+        when(noteRepository.findTextByPatId("1")).thenReturn(List.of(text));
+
+        List<NoteText> result = noteService.findNoteTextsByPatId("1");
+
+        assertEquals(List.of(text), result);
+        verify(noteRepository, never()).findAllByPatId(anyString());
+    }
+
+    @Test
+    public void findNoteBodiesByPatIds_shouldReturnProjectedNotes() {
+        NoteBody body = mock(NoteBody.class);
+        when(noteRepository.findBodyByPatIdIn(List.of("1", "2"))).thenReturn(List.of(body));
+
+        List<NoteBody> result = noteService.findNoteBodiesByPatIds(List.of("1", "2"));
+
+        assertEquals(List.of(body), result);
+        verify(noteRepository, never()).findAllByPatIdIn(anyCollection());
+    }
+
     @Test
     public void findNoteById_shouldReturnNoteDTO() {
         when(noteRepository.findAllByPatId("1")).thenReturn(List.of(note));
@@ -84,6 +169,60 @@ public class NoteServiceTest {
         verify(noteRepository, times(1)).findAllByPatId("99");
     }
 
+    @Test
+    public void findAllNoteByPatIds_shouldQueryAllPatientsAtOnce() {
+        when(noteRepository.findAllByPatIdIn(List.of("12345", "99"))).thenReturn(List.of(note));
+
+        List<Note> notes = noteService.findAllNoteByPatIds(List.of("12345", "99"));
+
+        assertEquals(1, notes.size());
+        verify(noteRepository, times(1)).findAllByPatIdIn(List.of("12345", "99"));
+    }
+
+    @Test
+    public void findAllNoteByPatIds_shouldRejectBatchAboveMaxSize() {
+        assertThrows(IllegalArgumentException.class, () -> noteService.findAllNoteByPatIds(List.of("1", "2", "3")));
+        verifyNoInteractions(noteRepository);
+    }
+
+    @Test
+    public void findNoteBodiesByPatIds_shouldRejectBatchAboveMaxSize() {
+        assertThrows(IllegalArgumentException.class, () -> noteService.findNoteBodiesByPatIds(List.of("1", "2", "3")));
+        verifyNoInteractions(noteRepository);
+    }
+
+    @Test
+    public void constructor_shouldRejectNonPositiveMaxBatchSize() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new NoteService(noteRepository, triggerIndexService, mongoTemplate, eventPublisher, 0));
+    }
+
+    @Test
+    public void findTriggersByPatId_shouldReturnIndexedTriggers() {
+        PatientTriggersDTO triggers = new PatientTriggersDTO("12345", "version", 0b101L, List.of("taille", "fume"));
+        when(triggerIndexService.getDictionaryVersion()).thenReturn("version");
+        when(triggerIndexService.findPatientTriggers("12345")).thenReturn(triggers);
+
+        assertEquals(triggers, noteService.findTriggersByPatId("12345", "version"));
+        assertEquals(triggers, noteService.findTriggersByPatId("12345", null));
+    }
+
+    @Test
+    public void findTriggersByPatIdForTerms_shouldMatchCallerTerms() {
+        PatientTriggersDTO triggers = new PatientTriggersDTO("12345", "other", 0b1L, List.of("rechute"));
+        when(triggerIndexService.findPatientTriggers("12345", List.of("rechute"))).thenReturn(triggers);
+
+        assertEquals(triggers, noteService.findTriggersByPatIdForTerms("12345", List.of("rechute")));
+    }
+
+    @Test
+    public void findTriggersByPatId_shouldThrowMismatch_whenCallerUsesAnotherDictionary() {
+        when(triggerIndexService.getDictionaryVersion()).thenReturn("version");
+
+        assertThrows(TriggerDictionaryMismatchException.class, () -> noteService.findTriggersByPatId("12345", "other"));
+        verify(triggerIndexService, never()).findPatientTriggers(anyString());
+    }
+
     @Test
     public void saveNote_shouldReturnSavedNoteDTO() {
         when(noteRepository.save(any(Note.class))).thenReturn(note);
@@ -92,7 +231,10 @@ public class NoteServiceTest {
 
         assertNotNull(savedNote);
         assertEquals("12345", savedNote.getPatId());
-        verify(noteRepository, times(2)).save(any(Note.class));
+        verify(noteRepository, times(1)).save(any(Note.class));
+        verify(triggerIndexService, times(1)).index(any(Note.class));
+        verify(triggerIndexService, times(1)).refreshPatient("12345");
+        verify(eventPublisher, times(1)).publishEvent(new NoteChangedEvent("12345"));
     }
 
     @Test
@@ -102,6 +244,7 @@ public class NoteServiceTest {
         });
 
         assertEquals("Note cannot be null", exception.getMessage());
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
@@ -115,6 +258,9 @@ public class NoteServiceTest {
         assertEquals("Test note", updated.getNote());
         verify(noteRepository, times(1)).findById("1");
         verify(noteRepository, times(1)).save(any(Note.class));
+        verify(triggerIndexService, times(1)).index(note);
+        verify(triggerIndexService, times(1)).refreshPatient("12345");
+        verify(eventPublisher, times(1)).publishEvent(new NoteChangedEvent("12345"));
     }
 
     @Test
@@ -131,24 +277,28 @@ public class NoteServiceTest {
 
     @Test
     public void deleteNoteById_shouldDeleteNote() {
-        when(noteRepository.existsById("1")).thenReturn(true);
+        when(noteRepository.findById("1")).thenReturn(Optional.of(note));
         doNothing().when(noteRepository).deleteById("1");
 
         noteService.deleteNoteById("1");
 
-        verify(noteRepository, times(1)).existsById("1");
+        verify(noteRepository, times(1)).findById("1");
         verify(noteRepository, times(1)).deleteById("1");
+        verify(triggerIndexService, times(1)).refreshPatient("12345");
+        verify(eventPublisher, times(1)).publishEvent(new NoteChangedEvent("12345"));
     }
 
     @Test
     public void deleteNoteById_shouldThrowExceptionIfNotFound() {
-        when(noteRepository.existsById("99")).thenReturn(false);
+        when(noteRepository.findById("99")).thenReturn(Optional.empty());
 
         Exception exception = assertThrows(NoteNotFoundException.class, () -> {
             noteService.deleteNoteById("99");
         });
 
         assertEquals("Note with id 99 not found.", exception.getMessage());
-        verify(noteRepository, times(1)).existsById("99");
+        verify(noteRepository, times(1)).findById("99");
+        verify(noteRepository, never()).deleteById("99");
+        verifyNoInteractions(eventPublisher);
     }
 }
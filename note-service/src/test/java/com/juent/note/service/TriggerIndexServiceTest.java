@@ -0,0 +1,325 @@
+package com.juent.note.service;
+
+import com.juent.note.DTO.PatientTriggersDTO;
+import com.juent.note.model.Note;
+import com.juent.note.model.PatientTriggers;
+import com.juent.note.repository.NoteRepository;
+import com.juent.note.repository.NoteTriggerMask;
+import com.juent.note.repository.PatientTriggersRepository;
+import com.juent.note.trigger.TriggerDictionary;
+import com.juent.note.trigger.TriggerDictionaryProvider;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.bson.Document;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class TriggerIndexServiceTest {
+
+    private AutoCloseable mock;
+
+    private TriggerIndexService triggerIndexService;
+
+    @TempDir
+    private Path directory;
+
+    private Path dictionaryFile;
+
+    private TriggerDictionaryProvider triggerDictionaryProvider;
+
+    private TriggerDictionary triggerDictionary;
+
+    @Mock
+    private NoteRepository noteRepository;
+
+    @Mock
+    private PatientTriggersRepository patientTriggersRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    public void init() throws IOException {
+        mock = MockitoAnnotations.openMocks(this);
+        dictionaryFile = Files.writeString(directory.resolve("triggers.txt"), "poids\nfume\nvertige\n");
+        triggerDictionaryProvider = new TriggerDictionaryProvider(new FileSystemResource(dictionaryFile), event -> {});
+        triggerDictionary = triggerDictionaryProvider.current();
+        triggerIndexService = new TriggerIndexService(triggerDictionaryProvider, noteRepository, patientTriggersRepository, mongoTemplate);
+    }
+
+    @AfterEach
+    public void close() throws Exception {
+        if (mock != null) {
+            mock.close();
+        }
+    }
+
+    @Test
+    public void index_shouldStoreTriggerMaskAndDictionaryVersionOnNote() {
+        Note note = new Note();
+        note.setNote("Le patient fume et a des vertiges.");
+
+        triggerIndexService.index(note);
+
+        assertEquals(0b110L, note.getTriggerMask());
+        assertEquals(triggerDictionary.getVersion(), note.getTriggerVersion());
+    }
+
+    @Test
+    public void refreshPatient_shouldWriteUnionOfNoteMasks_underTheRevisionItClaimed() {
+        claimRevision("12345", 7L);
+        when(noteRepository.findTriggerMaskByPatId("12345"))
+                .thenReturn(List.of(mask(0b001L, triggerDictionary.getVersion()), mask(0b100L, triggerDictionary.getVersion())));
+
+        triggerIndexService.refreshPatient("12345");
+
+        ArgumentCaptor<Update> claim = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(1)).findAndModify(any(Query.class), claim.capture(),
+                any(FindAndModifyOptions.class), eq(PatientTriggers.class));
+        assertEquals(1, claim.getValue().getUpdateObject().get("$inc", Document.class).get("revision"));
+        assertTrue(claim.getValue().getUpdateObject().get("$unset", Document.class).containsKey("dictionaryVersion"));
+
+        ArgumentCaptor<Query> latestRefresh = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> refreshed = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(1)).updateFirst(latestRefresh.capture(), refreshed.capture(), eq(PatientTriggers.class));
+        assertEquals(7L, latestRefresh.getValue().getQueryObject().get("revision"));
+        Document set = refreshed.getValue().getUpdateObject().get("$set", Document.class);
+        assertEquals(triggerDictionary.getVersion(), set.get("dictionaryVersion"));
+        assertEquals(0b101L, set.get("triggerMask"));
+        verifyNoInteractions(patientTriggersRepository);
+    }
+
+    @Test
+    public void refreshPatient_shouldWriteEmptyMask_whenPatientHasNoNote() {
+        claimRevision("12345", 1L);
+        when(noteRepository.findTriggerMaskByPatId("12345")).thenReturn(List.of());
+
+        triggerIndexService.refreshPatient("12345");
+
+        ArgumentCaptor<Update> refreshed = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(1)).updateFirst(any(Query.class), refreshed.capture(), eq(PatientTriggers.class));
+        assertEquals(0L, refreshed.getValue().getUpdateObject().get("$set", Document.class).get("triggerMask"));
+    }
+
+    @Test
+    public void refreshPatient_shouldLeavePatientMaskWithdrawn_whenANoteWasIndexedWithAnotherDictionary() {
+        claimRevision("12345", 1L);
+        when(noteRepository.findTriggerMaskByPatId("12345"))
+                .thenReturn(List.of(mask(0b001L, triggerDictionary.getVersion()), mask(0b100L, "old")));
+
+        triggerIndexService.refreshPatient("12345");
+
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(PatientTriggers.class));
+    }
+
+    @Test
+    public void findPatientTriggers_shouldReturnIndexedMaskAndMatchedTerms() {
+        when(patientTriggersRepository.findById("12345"))
+                .thenReturn(Optional.of(new PatientTriggers("12345", triggerDictionary.getVersion(), 0b101L, 1L)));
+
+        PatientTriggersDTO triggers = triggerIndexService.findPatientTriggers("12345");
+
+        assertEquals(triggerDictionary.getVersion(), triggers.getDictionaryVersion());
+        assertEquals(0b101L, triggers.getTriggerMask());
+        assertEquals(List.of(triggerDictionary.getTerms().get(0), triggerDictionary.getTerms().get(2)), triggers.getTriggers());
+        verifyNoInteractions(noteRepository);
+    }
+
+    @Test
+    public void findPatientTriggers_shouldScanNotesServerSide_whenPatientMaskIsMissing() {
+        when(patientTriggersRepository.findById("12345")).thenReturn(Optional.empty());
+        when(mongoTemplate.stream(any(Query.class), eq(Note.class))).thenReturn(Stream.empty());
+        when(noteRepository.findTextByPatId("12345")).thenReturn(List.of(() -> "Le patient fume.", () -> "Vertiges."));
+
+        triggerIndexService.reindexStaleNotes();
+        PatientTriggersDTO scanned = triggerIndexService.findPatientTriggers("12345");
+
+        assertEquals(triggerDictionary.getVersion(), scanned.getDictionaryVersion());
+        assertEquals(0b110L, scanned.getTriggerMask());
+        assertEquals(2, scanned.getTriggers().size());
+        verify(noteRepository, times(1)).findTextByPatId("12345");
+    }
+
+    @Test
+    public void findPatientTriggers_shouldScanNotesServerSide_whileARefreshIsInProgressOrMaskIsFromAnotherDictionary() {
+        when(noteRepository.findTextByPatId("12345")).thenReturn(List.of(() -> "Poids stable."));
+
+        when(patientTriggersRepository.findById("12345")).thenReturn(Optional.of(new PatientTriggers("12345", null, 0L, 2L)));
+        assertEquals(0b001L, triggerIndexService.findPatientTriggers("12345").getTriggerMask());
+
+        when(patientTriggersRepository.findById("12345")).thenReturn(Optional.of(new PatientTriggers("12345", "old", 0b110L, 2L)));
+        assertEquals(0b001L, triggerIndexService.findPatientTriggers("12345").getTriggerMask());
+    }
+
+    @Test
+    public void findPatientTriggersForTerms_shouldReadIndex_whenTermsMakeUpNoteServiceDictionary() {
+        when(patientTriggersRepository.findById("12345"))
+                .thenReturn(Optional.of(new PatientTriggers("12345", triggerDictionary.getVersion(), 0b101L, 1L)));
+
+        PatientTriggersDTO triggers = triggerIndexService.findPatientTriggers("12345", List.of("Poids", "fume", "Vertige"));
+
+        assertEquals(triggerDictionary.getVersion(), triggers.getDictionaryVersion());
+        assertEquals(0b101L, triggers.getTriggerMask());
+        verifyNoInteractions(noteRepository);
+    }
+
+    @Test
+    public void findPatientTriggersForTerms_shouldScanWithCallerDictionary_whenTermsDiffer() {
+        when(noteRepository.findTextByPatId("12345")).thenReturn(List.of(() -> "Le patient fume.", () -> "Rechute."));
+        List<String> callerTerms = List.of("rechute", "poids", "fume");
+
+        PatientTriggersDTO triggers = triggerIndexService.findPatientTriggers("12345", callerTerms);
+
+        assertEquals(TriggerDictionary.of(callerTerms).getVersion(), triggers.getDictionaryVersion());
+        assertEquals(0b101L, triggers.getTriggerMask());
+        assertEquals(List.of("rechute", "fume"), triggers.getTriggers());
+        verifyNoInteractions(patientTriggersRepository);
+    }
+
+    @Test
+    public void findPatientTriggersForTerms_shouldRejectEmptyTerms() {
+        assertThrows(IllegalArgumentException.class, () -> triggerIndexService.findPatientTriggers("12345", List.of()));
+    }
+
+    @Test
+    public void patientMask_shouldEqualScan_whenATriggerStraddlesTwoNotes() throws IOException {
+        rewriteDictionary("hemoglobine a1c\nfume\n");
+        TriggerDictionary dictionary = triggerDictionaryProvider.current();
+        Note first = new Note();
+        first.setNote("Résultat : hémoglobine");
+        Note second = new Note();
+        second.setNote("A1C élevée, fumeur.");
+        triggerIndexService.index(first);
+        triggerIndexService.index(second);
+
+        claimRevision("12345", 1L);
+        when(noteRepository.findTriggerMaskByPatId("12345"))
+                .thenReturn(List.of(mask(first.getTriggerMask(), dictionary.getVersion()), mask(second.getTriggerMask(), dictionary.getVersion())));
+        triggerIndexService.refreshPatient("12345");
+        ArgumentCaptor<Update> refreshed = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), refreshed.capture(), eq(PatientTriggers.class));
+        long indexed = (long) refreshed.getValue().getUpdateObject().get("$set", Document.class).get("triggerMask");
+
+        when(patientTriggersRepository.findById("12345")).thenReturn(Optional.empty());
+        when(noteRepository.findTextByPatId("12345")).thenReturn(List.of(first::getNote, second::getNote));
+        long scanned = triggerIndexService.findPatientTriggers("12345").getTriggerMask();
+
+        assertEquals(0b10L, indexed);
+        assertEquals(indexed, scanned);
+    }
+
+    @Test
+    public void reindexStaleNotes_shouldReindexNotesAndRefreshTheirPatients() {
+        Note stale = new Note("1", "12345", "John Doe", "Poids en hausse", 0L, "old");
+        when(mongoTemplate.stream(any(Query.class), eq(Note.class))).thenReturn(Stream.of(stale));
+        claimRevision("12345", 1L);
+        when(noteRepository.findTriggerMaskByPatId("12345")).thenReturn(List.of(mask(0b001L, triggerDictionary.getVersion())));
+
+        triggerIndexService.reindexStaleNotes();
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(1)).updateFirst(any(Query.class), update.capture(), eq(Note.class));
+        assertEquals(0b001L, update.getValue().getUpdateObject().get("$set", Document.class).get("triggerMask"));
+        verify(mongoTemplate, times(1)).updateFirst(any(Query.class), any(Update.class), eq(PatientTriggers.class));
+    }
+
+    @Test
+    public void reindexStaleNotes_shouldReindexNotesWithReloadedDictionary() throws IOException {
+        Note indexed = new Note("1", "12345", "John Doe", "Vertiges et poids", 0b101L, triggerDictionary.getVersion());
+        rewriteDictionary("vertige\n");
+        String reloaded = triggerDictionaryProvider.current().getVersion();
+        when(mongoTemplate.stream(any(Query.class), eq(Note.class))).thenReturn(Stream.of(indexed));
+        claimRevision("12345", 1L);
+        when(noteRepository.findTriggerMaskByPatId("12345")).thenReturn(List.of(mask(0b1L, reloaded)));
+
+        triggerIndexService.reindexStaleNotes();
+
+        ArgumentCaptor<Query> stale = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).stream(stale.capture(), eq(Note.class));
+        assertEquals(new Document("$ne", reloaded), stale.getValue().getQueryObject().get("triggerVersion"));
+        ArgumentCaptor<Query> stillStale = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(stillStale.capture(), update.capture(), eq(Note.class));
+        assertEquals(triggerDictionary.getVersion(), stillStale.getValue().getQueryObject().get("triggerVersion"));
+        Document set = update.getValue().getUpdateObject().get("$set", Document.class);
+        assertEquals(0b1L, set.get("triggerMask"));
+        assertEquals(reloaded, set.get("triggerVersion"));
+        assertEquals(reloaded, triggerIndexService.getDictionaryVersion());
+    }
+
+    @Test
+    public void reindexStaleNotes_shouldStop_whenDictionaryIsSwappedAgain() throws IOException {
+        Note first = new Note("1", "12345", "John Doe", "Poids", 0L, "old");
+        Note second = new Note("2", "67890", "Jane Doe", "Vertiges", 0L, "old");
+        claimRevision("12345", 1L);
+        when(mongoTemplate.stream(any(Query.class), eq(Note.class))).thenReturn(Stream.of(first, second));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Note.class))).thenAnswer(invocation -> {
+            rewriteDictionary("poids\n");
+            return null;
+        });
+
+        triggerIndexService.reindexStaleNotes();
+
+        verify(mongoTemplate, times(1)).updateFirst(any(Query.class), any(Update.class), eq(Note.class));
+        verify(noteRepository, times(1)).findTriggerMaskByPatId("12345");
+        verify(noteRepository, never()).findTriggerMaskByPatId("67890");
+    }
+
+    @Test
+    public void findPatientTriggers_shouldScanWithReloadedDictionary_untilPatientIsReindexed() throws IOException {
+        when(patientTriggersRepository.findById("12345"))
+                .thenReturn(Optional.of(new PatientTriggers("12345", triggerDictionary.getVersion(), 0b101L, 1L)));
+        when(noteRepository.findTextByPatId("12345")).thenReturn(List.of(() -> "Vertiges et poids."));
+        rewriteDictionary("vertige\n");
+
+        PatientTriggersDTO triggers = triggerIndexService.findPatientTriggers("12345");
+
+        assertEquals(triggerDictionaryProvider.current().getVersion(), triggers.getDictionaryVersion());
+        assertEquals(0b1L, triggers.getTriggerMask());
+        assertEquals(List.of("vertige"), triggers.getTriggers());
+    }
+
+    private void rewriteDictionary(String content) throws IOException {
+        Instant previous = Files.getLastModifiedTime(dictionaryFile).toInstant();
+        Files.writeString(dictionaryFile, content);
+        Files.setLastModifiedTime(dictionaryFile, FileTime.from(previous.plusSeconds(1)));
+        triggerDictionaryProvider.reloadIfChanged();
+    }
+
+    private void claimRevision(String patId, long revision) {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(PatientTriggers.class)))
+                .thenReturn(new PatientTriggers(patId, null, 0L, revision));
+    }
+
+    private static NoteTriggerMask mask(long triggerMask, String triggerVersion) {
+        return new NoteTriggerMask() {
+            @Override
+            public long getTriggerMask() {
+                return triggerMask;
+            }
+
+            @Override
+            public String getTriggerVersion() {
+                return triggerVersion;
+            }
+        };
+    }
+}
@@ -0,0 +1,49 @@
+package com.juent.note.trigger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TriggerDictionaryTest {
+
+    @Test
+    public void maskOf_shouldSetTheBitOfEveryTriggerFound() {
+        TriggerDictionary dictionary = TriggerDictionary.of(List.of("Hémoglobine A1C", "poids", "fume", "vertige"));
+
+        assertEquals(0b1101L, dictionary.maskOf("Le patient FUME, hémoglobine a1c élevée ; vertiges."));
+        assertEquals(0L, dictionary.maskOf("Rien à signaler"));
+    }
+
+    @Test
+    public void termsOf_shouldListTheNormalizedTermOfEverySetBit() {
+        TriggerDictionary dictionary = TriggerDictionary.of(List.of("Hémoglobine A1C", "poids", "fume", "vertige"));
+
+        assertEquals(List.of("hemoglobine a1c", "fume", "vertige"), dictionary.termsOf(0b1101L));
+        assertEquals(List.of(), dictionary.termsOf(0L));
+    }
+
+    @Test
+    public void getVersion_shouldMatchDiabetesAssessmentServiceDictionary() {
+        TriggerDictionary dictionary = new TriggerDictionaryProvider(new ClassPathResource("triggers.txt"), event -> {}).current();
+
+        assertEquals("287edd355d6d4aed", dictionary.getVersion());
+        assertEquals(dictionary.getVersion(), TriggerDictionary.of(dictionary.getTerms()).getVersion());
+    }
+
+    @Test
+    public void getVersion_shouldDependOnTermOrder() {
+        assertNotEquals(TriggerDictionary.of(List.of("taille", "poids")).getVersion(),
+                TriggerDictionary.of(List.of("poids", "taille")).getVersion());
+    }
+
+    @Test
+    public void of_shouldRejectMoreTermsThanMaskBits() {
+        List<String> terms = Collections.nCopies(Long.SIZE + 1, "poids");
+
+        assertThrows(IllegalArgumentException.class, () -> TriggerDictionary.of(terms));
+    }
+}
@@ -0,0 +1,95 @@
+package com.juent.note.trigger;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TriggerMatcherTest {
+
+    private static final List<String> TRIGGERS = List.of(
+            "hemoglobine a1c", "microalbumine", "taille", "poids", "fume", "anormal",
+            "cholesterol", "vertige", "rechute", "reaction", "anticorps"
+    );
+
+    @Test
+    public void countDistinct_shouldCountEachTriggerOnce() {
+        TriggerMatcher matcher = TriggerMatcher.compile(TRIGGERS);
+
+        assertEquals(3, matcher.countDistinct("fumeur fumeuse taille poids poids taille"));
+    }
+
+    @Test
+    public void countDistinct_shouldFindOverlappingTriggers() {
+        TriggerMatcher matcher = TriggerMatcher.compile(List.of("he", "she", "hers", "his"));
+
+        assertEquals(3, matcher.countDistinct("ushers"));
+    }
+
+    @Test
+    public void countDistinct_shouldReturnZero_whenNoTrigger() {
+        TriggerMatcher matcher = TriggerMatcher.compile(TRIGGERS);
+
+        assertEquals(0, matcher.countDistinct("le patient va bien aucun symptome"));
+        assertEquals(0, matcher.countDistinct(""));
+    }
+
+    @Test
+    public void countDistinct_shouldHandleNonAsciiTriggers() {
+        TriggerMatcher matcher = TriggerMatcher.compile(List.of("cholestérol", "straße"));
+
+        assertEquals(2, matcher.countDistinct("cholestérol élevé et straße"));
+        assertEquals(0, matcher.countDistinct("cholesterol strasse"));
+    }
+
+    @Test
+    public void scan_shouldCarryStateAcrossChunks() {
+        TriggerMatcher matcher = TriggerMatcher.compile(TRIGGERS);
+
+        TriggerMatcher.Scan scan = matcher.newScan()
+                .feed("hemoglo")
+                .feed("bine a")
+                .feed("1c et ver")
+                .feed("tige");
+
+        assertEquals(2, scan.getMatchedCount());
+        assertFalse(scan.isComplete());
+    }
+
+    @Test
+    public void scan_shouldNotMatchAcrossEndedTexts() {
+        TriggerMatcher matcher = TriggerMatcher.compile(TRIGGERS);
+
+        TriggerMatcher.Scan scan = matcher.newScan()
+                .feed("hemoglobine").endText()
+                .feed(" a1c et ver").endText()
+                .feed("tige poids");
+
+        assertEquals(1, scan.getMatchedCount());
+    }
+
+    @Test
+    public void countDistinct_shouldMatchLegacyContainsLoop() {
+        TriggerMatcher matcher = TriggerMatcher.compile(TRIGGERS);
+        Random random = new Random(42);
+        String alphabet = "abcdefghilmnoprstuv1 ";
+
+        for (int run = 0; run < 2_000; run++) {
+            StringBuilder text = new StringBuilder();
+            int length = random.nextInt(200);
+            for (int i = 0; i < length; i++) {
+                if (random.nextInt(40) == 0) {
+                    text.append(TRIGGERS.get(random.nextInt(TRIGGERS.size())));
+                } else {
+                    text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+                }
+            }
+
+            String candidate = text.toString();
+            long expected = TRIGGERS.stream().filter(candidate::contains).count();
+            assertEquals(expected, matcher.countDistinct(candidate), candidate);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.juent.patient.DTO;
+
+import com.juent.patient.enums.BulkItemStatusEnum;
+import lombok.*;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Generated
+public class PatientBulkItemDTO {
+    private int index;
+    private String id;
+    private BulkItemStatusEnum status;
+    private String error;
+}
@@ -0,0 +1,16 @@
+package com.juent.patient.DTO;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Generated
+public class PatientBulkResultDTO {
+    private int created;
+    private int rejected;
+    private int failed;
+    private List<PatientBulkItemDTO> items;
+}
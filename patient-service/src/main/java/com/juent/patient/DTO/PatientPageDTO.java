@@ -0,0 +1,15 @@
+package com.juent.patient.DTO;
+
+import com.juent.patient.model.Patient;
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Generated
+public class PatientPageDTO {
+    private List<Patient> patients;
+    private String nextCursor;
+}
@@ -0,0 +1,57 @@
+package com.juent.patient.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.juent.patient.DTO.PatientDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Size- and TTL-bounded cache of patients keyed by id, evicted by {@code PatientService} when a patient is
+ * updated or deleted. Concurrent misses on the same patient share a single load; failed loads are not cached.
+ * Loads run on their own virtual thread, outside Caffeine's map lock, so a slow Mongo lookup neither blocks other
+ * patients hashed to the same bin nor pins the carrier of a virtual request thread. A load still in flight when its
+ * patient is evicted is not cached.
+ */
+@Component
+public class PatientCache {
+    private static final Logger logger = LoggerFactory.getLogger(PatientCache.class);
+
+    private final AsyncCache<String, PatientDTO> cache;
+
+    public PatientCache(@Value("${patient.cache.max-size}") long maxSize,
+                        @Value("${patient.cache.ttl}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .executor(Thread::startVirtualThread)
+                .buildAsync();
+    }
+
+    public PatientDTO get(String id, Function<String, PatientDTO> loader) {
+        CompletableFuture<PatientDTO> load = cache.get(id,
+                (patientId, executor) -> CompletableFuture.supplyAsync(() -> loader.apply(patientId), executor));
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            // Caffeine drops a failed load asynchronously; drop it now so the next call retries.
+            cache.asMap().remove(id, load);
+            if (e.getCause() instanceof RuntimeException failure) {
+                throw failure;
+            }
+            throw e;
+        }
+    }
+
+    public void evict(String id) {
+        logger.info("evicting cached patient {}", id);
+        cache.synchronous().invalidate(id);
+    }
+}
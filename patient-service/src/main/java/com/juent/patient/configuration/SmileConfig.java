@@ -0,0 +1,58 @@
+package com.juent.patient.configuration;
+
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.Arrays;
+
+/**
+ * Smile, Jackson's binary JSON, offered next to JSON on the endpoints read by the assessment service. JSON stays
+ * the default; Smile is only written to callers listing it in {@code Accept}.
+ * The mapper is built from Spring Boot's Jackson settings so both formats carry the same fields and date formats.
+ * Responses of those endpoints carry {@code Vary: Accept}, so that caches keep the two formats apart.
+ */
+@Configuration
+public class SmileConfig implements WebMvcConfigurer {
+
+    public static final String APPLICATION_SMILE = "application/x-jackson-smile";
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new VaryByAcceptInterceptor());
+    }
+
+    private static boolean producesSmile(HandlerMethod handlerMethod) {
+        RequestMapping mapping = handlerMethod.getMethodAnnotation(RequestMapping.class);
+        return mapping != null && Arrays.asList(mapping.produces()).contains(APPLICATION_SMILE);
+    }
+
+    /**
+     * Adds {@code Vary: Accept} before the handler runs, so that it is also sent with a 304.
+     */
+    public static class VaryByAcceptInterceptor implements HandlerInterceptor {
+
+        @Override
+        public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+            if (handler instanceof HandlerMethod handlerMethod && producesSmile(handlerMethod)) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            }
+            return true;
+        }
+    }
+}
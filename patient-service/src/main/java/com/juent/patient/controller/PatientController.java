@@ -1,13 +1,33 @@
 package com.juent.patient.controller;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.juent.patient.DTO.PatientBulkResultDTO;
 import com.juent.patient.DTO.PatientDTO;
+import com.juent.patient.DTO.PatientPageDTO;
+import com.juent.patient.configuration.SmileConfig;
+import com.juent.patient.csv.PatientCsv;
 import com.juent.patient.model.Patient;
+import com.juent.patient.service.PatientBulkService;
 import com.juent.patient.service.PatientService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
@@ -16,9 +36,14 @@ public class PatientController {
     private static final Logger logger = LoggerFactory.getLogger(PatientController.class);
 
     private final PatientService patientService;
+    private final PatientBulkService patientBulkService;
+    private final ObjectMapper objectMapper;
 
-    public PatientController(PatientService patientService) {
+    public PatientController(PatientService patientService, PatientBulkService patientBulkService,
+                             ObjectMapper objectMapper) {
         this.patientService = patientService;
+        this.patientBulkService = patientBulkService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping()
@@ -36,7 +61,77 @@ public class PatientController {
         return ResponseEntity.ok(patients);
     }
 
-    @GetMapping("/{id}")
+    @GetMapping(params = "limit")
+    public ResponseEntity<PatientPageDTO> getPatientsPage(@RequestParam(required = false) String after,
+                                                          @RequestParam int limit) {
+        logger.info("Fetching {} patients after {}", limit, after);
+        return ResponseEntity.ok(patientService.findPatientsPage(after, limit));
+    }
+
+    @GetMapping(produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamPatients() {
+        logger.info("Streaming all patients");
+        StreamingResponseBody body = out -> patientService.forEachPatient(patient -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(patient));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok(body);
+    }
+
+    @GetMapping(produces = "text/csv")
+    public ResponseEntity<StreamingResponseBody> exportPatientsCsv() {
+        logger.info("Exporting all patients as CSV");
+        StreamingResponseBody body = out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write(PatientCsv.HEADER);
+            writer.write('\n');
+            patientService.forEachPatient(patient -> {
+                try {
+                    writer.write(PatientCsv.write(patient));
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"patients.csv\"")
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .body(body);
+    }
+
+    /**
+     * Imports a CSV file with a header row, read and written batch by batch, and answers one result per row.
+     */
+    @PostMapping(value = "/bulk", consumes = "text/csv")
+    public ResponseEntity<PatientBulkResultDTO> importPatientsCsv(InputStream body) throws IOException {
+        logger.info("Importing patients from CSV");
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        return ResponseEntity.ok(patientBulkService.insertPatients(PatientCsv.read(reader)));
+    }
+
+    /**
+     * Imports a JSON array or an NDJSON stream of patients, read and written batch by batch, and answers one result
+     * per item in input order.
+     */
+    @PostMapping(value = "/bulk", consumes = {"application/json", "application/x-ndjson"})
+    public ResponseEntity<PatientBulkResultDTO> importPatients(InputStream body) throws IOException {
+        logger.info("Importing patients in bulk");
+        try (MappingIterator<PatientDTO> patients = objectMapper.readerFor(PatientDTO.class).readValues(body)) {
+            return ResponseEntity.ok(patientBulkService.insertPatients(patients));
+        }
+    }
+
+    /**
+     * Answers with a weak ETag derived from the patient's fields, shared by the JSON and Smile forms of the patient;
+     * Spring turns a matching {@code If-None-Match} into a 304 without a body.
+     */
+    @GetMapping(value = "/{id}", produces = {"application/json;charset=UTF-8", SmileConfig.APPLICATION_SMILE})
     public ResponseEntity<PatientDTO> getPatientById(@PathVariable String id) {
         logger.info("Fetching patient with id {}", id);
         PatientDTO patientDTO = patientService.findPatientById(id);
@@ -46,7 +141,13 @@ public class PatientController {
             return ResponseEntity.notFound().build();
         }
 
-        return ResponseEntity.ok(patientDTO);
+        return ResponseEntity.ok().eTag(eTagOf(patientDTO)).body(patientDTO);
+    }
+
+    @PostMapping(value = "/batch", produces = {"application/json;charset=UTF-8", SmileConfig.APPLICATION_SMILE})
+    public ResponseEntity<List<Patient>> getPatientsByIds(@RequestBody List<String> ids) {
+        logger.info("Fetching {} patients by id", ids.size());
+        return ResponseEntity.ok(patientService.findPatientsByIds(ids));
     }
 
     @PostMapping("/insert")
@@ -72,4 +173,10 @@ public class PatientController {
         logger.info("Patient with id {} deleted successfully", id);
         return ResponseEntity.noContent().build();
     }
+
+    private static String eTagOf(PatientDTO patient) {
+        String fields = String.join("\u001f", patient.getFirstName(), patient.getLastName(), patient.getBirthDate(),
+                String.valueOf(patient.getGender()), patient.getAddress(), patient.getPhone());
+        return "W/\"" + DigestUtils.md5DigestAsHex(fields.getBytes(StandardCharsets.UTF_8)) + '"';
+    }
 }
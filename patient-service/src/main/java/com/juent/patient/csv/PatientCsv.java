@@ -0,0 +1,209 @@
+package com.juent.patient.csv;
+
+import com.juent.patient.DTO.PatientDTO;
+import com.juent.patient.enums.GenderEnum;
+import com.juent.patient.model.Patient;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+
+import static com.juent.patient.service.PatientService.BIRTH_DATE_FORMAT;
+
+/**
+ * CSV form of patients used by the bulk import and the export: a header row naming the columns, then one patient
+ * per row. Fields containing a comma, a quote or a line break are quoted, quotes being doubled (RFC 4180), and a
+ * quoted field may span several lines.
+ * <p>
+ * On export, text starting with {@code =}, {@code +}, {@code -} or {@code @} is prefixed with {@code '} so that
+ * spreadsheets do not evaluate it as a formula; the import removes that prefix again.
+ */
+public final class PatientCsv {
+    public static final List<String> COLUMNS = List.of("firstName", "lastName", "birthDate", "gender", "address", "phone");
+    public static final String HEADER = String.join(",", COLUMNS);
+    private static final String FORMULA_PREFIXES = "=+-@";
+
+    private PatientCsv() {
+    }
+
+    /**
+     * Reads rows lazily. The header may list the columns in any order and must name them all; a row that cannot be
+     * read throws {@link IllegalArgumentException} from {@code next()}, after which reading can go on with the next row.
+     */
+    public static Iterator<PatientDTO> read(BufferedReader reader) throws IOException {
+        String header = reader.readLine();
+        if (header == null) {
+            return new ArrayList<PatientDTO>().iterator();
+        }
+
+        List<String> names = parseLine(header.startsWith("\uFEFF") ? header.substring(1) : header);
+        int[] positions = new int[COLUMNS.size()];
+        for (int i = 0; i < COLUMNS.size(); i++) {
+            positions[i] = names.indexOf(COLUMNS.get(i));
+            if (positions[i] < 0) {
+                throw new IllegalArgumentException("Missing CSV column " + COLUMNS.get(i));
+            }
+        }
+
+        return new Iterator<>() {
+            private int lineNumber = 1;
+            private int rowNumber;
+            private String next = readRow();
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public PatientDTO next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                String row = next;
+                int number = rowNumber;
+                next = readRow();
+                try {
+                    return toPatientDTO(parseLine(row), positions, names.size());
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Line " + number + ": " + e.getMessage(), e);
+                }
+            }
+
+            /**
+             * Skips blank lines, then reads lines until the quotes are balanced; an unbalanced row runs to the end
+             * of the input and is rejected by {@link #parseLine}.
+             */
+            private String readRow() {
+                try {
+                    String line = reader.readLine();
+                    lineNumber++;
+                    while (line != null && line.isBlank()) {
+                        line = reader.readLine();
+                        lineNumber++;
+                    }
+                    if (line == null) {
+                        return null;
+                    }
+                    rowNumber = lineNumber;
+                    StringBuilder row = new StringBuilder(line);
+                    boolean quoted = isQuoteOpen(line, false);
+                    while (quoted && (line = reader.readLine()) != null) {
+                        lineNumber++;
+                        row.append('\n').append(line);
+                        quoted = isQuoteOpen(line, true);
+                    }
+                    return row.toString();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Whether a quoted field is still open at the end of {@code line}, given whether one was open at its start.
+     * A doubled quote toggles twice, as {@link #parseLine} reads it.
+     */
+    private static boolean isQuoteOpen(String line, boolean quoted) {
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == '"') {
+                quoted = !quoted;
+            }
+        }
+        return quoted;
+    }
+
+    public static String write(Patient patient) {
+        return String.join(",",
+                quote(patient.getFirstName()),
+                quote(patient.getLastName()),
+                patient.getBirthDate() == null ? "" : BIRTH_DATE_FORMAT.format(patient.getBirthDate()),
+                patient.getGender() == null ? "" : patient.getGender().name(),
+                quote(patient.getAddress()),
+                quote(patient.getPhone()));
+    }
+
+    private static PatientDTO toPatientDTO(List<String> fields, int[] positions, int columns) {
+        if (fields.size() != columns) {
+            throw new IllegalArgumentException("expected " + columns + " fields but found " + fields.size());
+        }
+        String gender = fieldAt(fields, positions[3]);
+        return new PatientDTO(
+                fieldAt(fields, positions[0]),
+                fieldAt(fields, positions[1]),
+                fieldAt(fields, positions[2]),
+                gender == null ? null : GenderEnum.valueOf(gender.toUpperCase(Locale.ROOT)),
+                fieldAt(fields, positions[4]),
+                fieldAt(fields, positions[5]));
+    }
+
+    private static String fieldAt(List<String> fields, int position) {
+        String field = fields.get(position).strip();
+        if (field.length() > 1 && field.charAt(0) == '\'' && isFormulaOrEscaped(field.substring(1))) {
+            field = field.substring(1);
+        }
+        return field.isEmpty() ? null : field;
+    }
+
+    static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String quote(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (isFormulaOrEscaped(value)) {
+            value = '\'' + value;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Text a spreadsheet would evaluate, or text already starting with the {@code '} escape of such text, which is
+     * escaped once more so that the import gives it back unchanged.
+     */
+    private static boolean isFormulaOrEscaped(String value) {
+        int start = 0;
+        while (start < value.length() && value.charAt(start) == '\'') {
+            start++;
+        }
+        return start < value.length() && FORMULA_PREFIXES.indexOf(value.charAt(start)) >= 0;
+    }
+}
@@ -0,0 +1,7 @@
+package com.juent.patient.enums;
+
+public enum BulkItemStatusEnum {
+    CREATED,
+    REJECTED,
+    FAILED
+}
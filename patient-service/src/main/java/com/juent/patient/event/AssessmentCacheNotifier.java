@@ -0,0 +1,51 @@
+package com.juent.patient.event;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.time.Duration;
+
+/**
+ * Forwards patient changes to diabetes-assessment-service so the cached assessment is evicted.
+ * Failures are only logged: the assessment cache TTL bounds how long a missed eviction stays visible.
+ */
+@Component
+public class AssessmentCacheNotifier {
+    private static final Logger logger = LoggerFactory.getLogger(AssessmentCacheNotifier.class);
+
+    private final RestClient restClient;
+
+    public AssessmentCacheNotifier(@Value("${assessment.service.url}") String assessmentServiceUrl,
+                                   @Value("${assessment.service.timeout}") Duration timeout,
+                                   @Value("${internal.auth.token}") String internalAuthToken,
+                                   RestClient.Builder restClientBuilder) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeout);
+        requestFactory.setReadTimeout(timeout);
+        this.restClient = restClientBuilder
+                .baseUrl(assessmentServiceUrl)
+                .requestFactory(requestFactory)
+                .defaultHeader("X-Internal-Auth", internalAuthToken)
+                .build();
+    }
+
+    @Async
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientChanged(PatientChangedEvent event) {
+        try {
+            restClient.post()
+                    .uri("/internal/assess/invalidate/{patientId}", event.patientId())
+                    .retrieve()
+                    .toBodilessEntity();
+        } catch (RestClientException e) {
+            logger.warn("could not evict assessment of patient {}: {}", event.patientId(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,4 @@
+package com.juent.patient.event;
+
+public record PatientChangedEvent(String patientId) {
+}
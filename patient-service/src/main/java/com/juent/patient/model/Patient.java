@@ -3,6 +3,7 @@ package com.juent.patient.model;
 import com.juent.patient.enums.GenderEnum;
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDate;
@@ -14,6 +15,7 @@ import java.time.LocalDate;
 @EqualsAndHashCode(of = "id")
 @Generated
 @Document(collection = "patients")
+@CompoundIndex(name = "lastName_1_firstName_1_birthDate_1", def = "{'lastName': 1, 'firstName': 1, 'birthDate': 1}")
 public class Patient {
     @Id
     private String id;
@@ -1,6 +1,13 @@
 package com.juent.patient.repository;
 
 import com.juent.patient.model.Patient;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
-public interface PatientRepository extends MongoRepository<Patient, String> {}
+import java.util.List;
+
+public interface PatientRepository extends MongoRepository<Patient, String> {
+    List<Patient> findAllByOrderByIdAsc(Limit limit);
+
+    List<Patient> findByIdGreaterThanOrderByIdAsc(String id, Limit limit);
+}
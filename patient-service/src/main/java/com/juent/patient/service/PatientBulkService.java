@@ -0,0 +1,142 @@
+package com.juent.patient.service;
+
+import com.juent.patient.DTO.PatientBulkItemDTO;
+import com.juent.patient.DTO.PatientBulkResultDTO;
+import com.juent.patient.DTO.PatientDTO;
+import com.juent.patient.enums.BulkItemStatusEnum;
+import com.juent.patient.model.Patient;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static com.juent.patient.service.PatientService.BIRTH_DATE_FORMAT;
+
+/**
+ * Writes large volumes of patients with unordered bulk inserts of {@code patient.bulk.batch-size} patients, instead
+ * of one request and one round trip per patient. Ids are assigned here so every item of the result carries the id
+ * of the patient it created.
+ */
+@Service
+public class PatientBulkService {
+    private static final Logger logger = LoggerFactory.getLogger(PatientBulkService.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final int batchSize;
+
+    public PatientBulkService(MongoTemplate mongoTemplate, @Value("${patient.bulk.batch-size}") int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("patient.bulk.batch-size must be positive");
+        }
+        this.mongoTemplate = mongoTemplate;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Inserts the patients as they are read. Invalid patients, and rows the iterator reports as unreadable with an
+     * {@link IllegalArgumentException}, are rejected without stopping the import; any other read error stops it,
+     * after writing the patients read before it.
+     */
+    public PatientBulkResultDTO insertPatients(Iterator<PatientDTO> patients) {
+        List<PatientBulkItemDTO> items = new ArrayList<>();
+        List<Patient> batch = new ArrayList<>(batchSize);
+        List<PatientBulkItemDTO> batchItems = new ArrayList<>(batchSize);
+
+        int index = 0;
+        try {
+            while (patients.hasNext()) {
+                Patient patient;
+                try {
+                    patient = toPatient(patients.next());
+                } catch (IllegalArgumentException e) {
+                    items.add(new PatientBulkItemDTO(index++, null, BulkItemStatusEnum.REJECTED, e.getMessage()));
+                    continue;
+                }
+
+                PatientBulkItemDTO item = new PatientBulkItemDTO(index++, patient.getId(), BulkItemStatusEnum.CREATED, null);
+                items.add(item);
+                batch.add(patient);
+                batchItems.add(item);
+                if (batch.size() == batchSize) {
+                    insertBatch(batch, batchItems);
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Bulk patient import stopped at item {}: {}", index, e.getMessage());
+            items.add(new PatientBulkItemDTO(index, null, BulkItemStatusEnum.REJECTED, "Unreadable patient: " + e.getMessage()));
+        }
+        insertBatch(batch, batchItems);
+
+        PatientBulkResultDTO result = new PatientBulkResultDTO(
+                count(items, BulkItemStatusEnum.CREATED),
+                count(items, BulkItemStatusEnum.REJECTED),
+                count(items, BulkItemStatusEnum.FAILED),
+                items);
+        logger.info("Bulk patient import: {} created, {} rejected, {} failed",
+                result.getCreated(), result.getRejected(), result.getFailed());
+        return result;
+    }
+
+    private void insertBatch(List<Patient> batch, List<PatientBulkItemDTO> batchItems) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            mongoTemplate.bulkOps(BulkMode.UNORDERED, Patient.class).insert(batch).execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                PatientBulkItemDTO item = batchItems.get(error.getIndex());
+                item.setStatus(BulkItemStatusEnum.FAILED);
+                item.setError(error.getMessage());
+            }
+        } catch (RuntimeException e) {
+            logger.error("Bulk insert of {} patients failed: {}", batch.size(), e.getMessage());
+            for (PatientBulkItemDTO item : batchItems) {
+                item.setStatus(BulkItemStatusEnum.FAILED);
+                item.setError(e.getMessage());
+            }
+        }
+        batch.clear();
+        batchItems.clear();
+    }
+
+    private static Patient toPatient(PatientDTO patientDTO) {
+        if (patientDTO == null) {
+            throw new IllegalArgumentException("Patient cannot be null");
+        }
+        if (isBlank(patientDTO.getFirstName()) || isBlank(patientDTO.getLastName())
+                || isBlank(patientDTO.getBirthDate()) || patientDTO.getGender() == null) {
+            throw new IllegalArgumentException("Missing required fields");
+        }
+
+        LocalDate birthDate;
+        try {
+            birthDate = LocalDate.parse(patientDTO.getBirthDate(), BIRTH_DATE_FORMAT);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid birthDate " + patientDTO.getBirthDate());
+        }
+
+        return new Patient(new ObjectId().toHexString(), patientDTO.getFirstName(), patientDTO.getLastName(),
+                birthDate, patientDTO.getGender(), patientDTO.getAddress(), patientDTO.getPhone());
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static int count(List<PatientBulkItemDTO> items, BulkItemStatusEnum status) {
+        return (int) items.stream().filter(item -> item.getStatus() == status).count();
+    }
+}
@@ -1,26 +1,54 @@
 package com.juent.patient.service;
 
 import com.juent.patient.DTO.PatientDTO;
+import com.juent.patient.DTO.PatientPageDTO;
+import com.juent.patient.cache.PatientCache;
+import com.juent.patient.event.PatientChangedEvent;
 import com.juent.patient.exception.PatientNotFoundException;
 import com.juent.patient.model.Patient;
 import com.juent.patient.repository.PatientRepository;
+import org.bson.types.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class PatientService {
     private static final Logger logger = LoggerFactory.getLogger(PatientService.class);
+    public static final int MAX_PAGE_SIZE = 1000;
+    private static final int STREAM_BATCH_SIZE = 500;
+    public static final DateTimeFormatter BIRTH_DATE_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE;
 
     private final PatientRepository patientRepository;
+    private final MongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PatientCache patientCache;
+    private final int maxBatchSize;
 
-    public PatientService(PatientRepository patientRepository) {
+    public PatientService(PatientRepository patientRepository, MongoTemplate mongoTemplate,
+                          ApplicationEventPublisher eventPublisher, PatientCache patientCache,
+                          @Value("${patient.batch.max-size}") int maxBatchSize) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("patient.batch.max-size must be positive");
+        }
         this.patientRepository = patientRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.eventPublisher = eventPublisher;
+        this.patientCache = patientCache;
+        this.maxBatchSize = maxBatchSize;
     }
 
     @Transactional(readOnly = true)
@@ -31,12 +59,61 @@ public class PatientService {
         return patients;
     }
 
+    /**
+     * Keyset page of patients ordered by id, starting after the {@code after} cursor, or at the first patient when null.
+     * The next cursor is null on the last page.
+     */
+    @Transactional(readOnly = true)
+    public PatientPageDTO findPatientsPage(String after, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (after != null && !ObjectId.isValid(after)) {
+            throw new IllegalArgumentException("Invalid page cursor " + after);
+        }
+
+        logger.info("fetching {} patients after {}", limit, after);
+        List<Patient> patients = after == null
+                ? patientRepository.findAllByOrderByIdAsc(Limit.of(limit + 1))
+                : patientRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(limit + 1));
+
+        if (patients.size() <= limit) {
+            return new PatientPageDTO(patients, null);
+        }
+        List<Patient> page = patients.subList(0, limit);
+        return new PatientPageDTO(page, page.getLast().getId());
+    }
+
+    /**
+     * Hands every patient, ordered by id, to {@code action} as it is read from the cursor, without holding them all in memory.
+     */
+    public void forEachPatient(Consumer<Patient> action) {
+        logger.info("streaming all patients");
+        Query query = new Query().with(Sort.by("id")).cursorBatchSize(STREAM_BATCH_SIZE);
+        try (Stream<Patient> patients = mongoTemplate.stream(query, Patient.class)) {
+            patients.forEach(action);
+        }
+    }
+
     @Transactional(readOnly = true)
+    public List<Patient> findPatientsByIds(List<String> ids) {
+        if (ids.size() > maxBatchSize) {
+            throw new IllegalArgumentException("At most " + maxBatchSize + " patient ids per batch, got " + ids.size());
+        }
+        logger.info("fetching {} patients by id", ids.size());
+        List<Patient> patients = patientRepository.findAllById(ids);
+        logger.info("found {} patients", patients.size());
+        return patients;
+    }
+
+    /**
+     * Served from {@link PatientCache}; the returned DTO is shared with later callers and must not be modified.
+     */
     public PatientDTO findPatientById(String id) {
         logger.info("Fetching patient with id {}", id);
-        return patientRepository.findById(id)
+        return patientCache.get(id, patientId -> patientRepository.findById(patientId)
                 .map(PatientDTO::new)
-                .orElseThrow(() -> new PatientNotFoundException(id));
+                .orElseThrow(() -> new PatientNotFoundException(patientId)));
     }
 
     @Transactional
@@ -46,7 +123,7 @@ public class PatientService {
             Patient patient = new Patient();
             patient.setFirstName(patientDTO.getFirstName());
             patient.setLastName(patientDTO.getLastName());
-            patient.setBirthDate(LocalDate.parse(patientDTO.getBirthDate(), DateTimeFormatter.ofPattern("yyyy-MM-dd")));
+            patient.setBirthDate(LocalDate.parse(patientDTO.getBirthDate(), BIRTH_DATE_FORMAT));
             patient.setGender(patientDTO.getGender());
             patient.setAddress(patientDTO.getAddress());
             patient.setPhone(patientDTO.getPhone());
@@ -68,7 +145,7 @@ public class PatientService {
         if (patientDTO.getLastName() != null)
             patient.setLastName(patientDTO.getLastName());
         if (patientDTO.getBirthDate() != null)
-            patient.setBirthDate(LocalDate.parse(patientDTO.getBirthDate()));
+            patient.setBirthDate(LocalDate.parse(patientDTO.getBirthDate(), BIRTH_DATE_FORMAT));
         if (patientDTO.getGender() != null)
             patient.setGender(patientDTO.getGender());
         if (patientDTO.getAddress() != null)
@@ -76,7 +153,10 @@ public class PatientService {
         if (patientDTO.getPhone() != null)
             patient.setPhone(patientDTO.getPhone());
 
-        return new PatientDTO(patientRepository.save(patient));
+        PatientDTO updated = new PatientDTO(patientRepository.save(patient));
+        patientCache.evict(id);
+        eventPublisher.publishEvent(new PatientChangedEvent(id));
+        return updated;
     }
 
     @Transactional
@@ -86,5 +166,7 @@ public class PatientService {
             throw new PatientNotFoundException(id);
         }
         patientRepository.deleteById(id);
+        patientCache.evict(id);
+        eventPublisher.publishEvent(new PatientChangedEvent(id));
     }
 }
@@ -0,0 +1,170 @@
+package com.juent.patient.benchmark;
+
+import com.juent.patient.PatientServiceApplication;
+import com.juent.patient.enums.GenderEnum;
+import com.juent.patient.model.Patient;
+import com.juent.patient.repository.PatientRepository;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sustained throughput and latency of GET /api/patient/{id} when every Mongo call takes {@code latencyMs}, served by
+ * Tomcat's default pool of 200 platform threads, then with the virtual-threads profile. The repository is replaced by
+ * a stand-in that sleeps for the latency, so no MongoDB is needed. The patient cache is turned off and every request
+ * asks for another patient id, so that each request waits for the stand-in. For each number of closed-loop clients the
+ * harness reports requests per second over the measurement window and the p50 / p99 latency seen by the clients.
+ * <p>
+ * Arguments, all optional: latency in ms (50), measurement window in s (10), client counts (100,400,1600).
+ */
+public class VirtualThreadLoadBenchmark {
+
+    private static final String TOKEN = "load-test";
+
+    public static void main(String[] args) throws Exception {
+        Duration latency = Duration.ofMillis(args.length > 0 ? Long.parseLong(args[0]) : 50);
+        Duration window = Duration.ofSeconds(args.length > 1 ? Long.parseLong(args[1]) : 10);
+        int[] clients = args.length > 2
+                ? Arrays.stream(args[2].split(",")).mapToInt(Integer::parseInt).toArray()
+                : new int[]{100, 400, 1600};
+
+        PrintStream report = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        report.printf("GET /api/patient/{id}, Mongo latency %d ms, window %d s%n", latency.toMillis(), window.toSeconds());
+        report.printf("%-16s %8s %10s %10s %10s %8s%n", "threads", "clients", "req/s", "p50 ms", "p99 ms", "errors");
+
+        for (boolean virtual : new boolean[]{false, true}) {
+            try (ConfigurableApplicationContext app = start(virtual, latency)) {
+                int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+                String baseUri = "http://localhost:" + port + "/api/patient/";
+                for (int count : clients) {
+                    run(baseUri, count, Duration.ofSeconds(3));
+                    Result result = run(baseUri, count, window);
+                    report.printf("%-16s %8d %10.0f %10.1f %10.1f %8d%n", virtual ? "virtual" : "platform (200)",
+                            count, result.requestsPerSecond(), result.percentileMs(0.50), result.percentileMs(0.99), result.errors());
+                }
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start(boolean virtual, Duration latency) {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(PatientServiceApplication.class)
+                .initializers(context -> context.getBeanFactory().addBeanPostProcessor(slowRepository(latency)));
+        if (virtual) {
+            builder.profiles("virtual-threads");
+        }
+        return builder.run(
+                "--server.port=0",
+                "--internal.auth.token=" + TOKEN,
+                "--spring.data.mongodb.host=localhost",
+                "--spring.data.mongodb.database=load_test",
+                "--patient.cache.max-size=0",
+                "--logging.level.root=warn",
+                "--logging.level.org.springframework.security=warn",
+                "--logging.level.org.springframework.web=warn");
+    }
+
+    private static Result run(String baseUri, int clients, Duration window) throws Exception {
+        AtomicLong ids = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        long deadline = System.nanoTime() + window.toNanos();
+
+        try (HttpClient httpClient = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+             ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<long[]>> latencies = new ArrayList<>(clients);
+            for (int i = 0; i < clients; i++) {
+                latencies.add(clientThreads.submit(() -> {
+                    long[] samples = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUri + ids.incrementAndGet()))
+                                .header("X-Internal-Auth", TOKEN)
+                                .GET()
+                                .build();
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                                continue;
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                            continue;
+                        }
+                        if (count == samples.length) {
+                            samples = Arrays.copyOf(samples, count * 2);
+                        }
+                        samples[count++] = System.nanoTime() - start;
+                    }
+                    return Arrays.copyOf(samples, count);
+                }));
+            }
+
+            List<long[]> all = new ArrayList<>(clients);
+            for (Future<long[]> client : latencies) {
+                all.add(client.get());
+            }
+            long[] merged = all.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+            return new Result(merged, window, errors.get());
+        }
+    }
+
+    private static BeanPostProcessor slowRepository(Duration latency) {
+        Patient patient = new Patient("1", "John", "Doe", LocalDate.of(1968, 6, 22), GenderEnum.MALE, "1 Main Street", "555");
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof PatientRepository)) {
+                    return bean;
+                }
+                return Proxy.newProxyInstance(PatientRepository.class.getClassLoader(), new Class<?>[]{PatientRepository.class},
+                        (proxy, method, methodArgs) -> switch (method.getName()) {
+                            case "findById" -> {
+                                Thread.sleep(latency);
+                                yield Optional.of(patient);
+                            }
+                            case "toString" -> "SlowPatientRepository";
+                            case "hashCode" -> System.identityHashCode(proxy);
+                            case "equals" -> proxy == methodArgs[0];
+                            default -> throw new UnsupportedOperationException(method.getName());
+                        });
+            }
+        };
+    }
+
+    private record Result(long[] latenciesNanos, Duration window, long errors) {
+
+        double requestsPerSecond() {
+            return latenciesNanos.length / (window.toMillis() / 1000.0);
+        }
+
+        double percentileMs(double percentile) {
+            if (latenciesNanos.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.ceil(percentile * latenciesNanos.length) - 1;
+            return latenciesNanos[Math.max(index, 0)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.juent.patient.cache;
+
+import com.juent.patient.DTO.PatientDTO;
+import com.juent.patient.enums.GenderEnum;
+import com.juent.patient.exception.PatientNotFoundException;
+import com.juent.patient.model.Patient;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PatientCacheTest {
+
+    private final PatientCache patientCache = new PatientCache(100, Duration.ofMinutes(10));
+
+    @Test
+    void get_shouldLoadOnVirtualThread_andServeLaterCallsFromCache() {
+        AtomicInteger loads = new AtomicInteger();
+
+        PatientDTO first = patientCache.get("1", id -> {
+            assertTrue(Thread.currentThread().isVirtual());
+            loads.incrementAndGet();
+            return patient(id, "John");
+        });
+
+        assertSame(first, patientCache.get("1", id -> fail("served from cache")));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void get_shouldNotBlockOtherPatients_whileALoadIsSlow() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<PatientDTO> slow = CompletableFuture.supplyAsync(() -> patientCache.get("1", id -> {
+            loading.countDown();
+            await(release);
+            return patient(id, "John");
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        assertEquals("Jane", patientCache.get("2", id -> patient(id, "Jane")).getFirstName());
+
+        release.countDown();
+        assertEquals("John", slow.get(5, TimeUnit.SECONDS).getFirstName());
+    }
+
+    @Test
+    void get_shouldNotCacheLoad_whenPatientIsEvictedWhileItIsLoading() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<PatientDTO> stale = CompletableFuture.supplyAsync(() -> patientCache.get("1", id -> {
+            loading.countDown();
+            await(release);
+            return patient(id, "John");
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        patientCache.evict("1");
+        release.countDown();
+        assertEquals("John", stale.get(5, TimeUnit.SECONDS).getFirstName());
+
+        assertEquals("Johnny", patientCache.get("1", id -> patient(id, "Johnny")).getFirstName());
+    }
+
+    @Test
+    void get_shouldRethrowLoaderFailure_andNotCacheIt() {
+        assertThrows(PatientNotFoundException.class, () -> patientCache.get("99", id -> {
+            throw new PatientNotFoundException(id);
+        }));
+
+        assertEquals("John", patientCache.get("99", id -> patient(id, "John")).getFirstName());
+    }
+
+    private static PatientDTO patient(String id, String firstName) {
+        return new PatientDTO(new Patient(id, firstName, "Doe", LocalDate.of(1990, 1, 1), GenderEnum.MALE, null, null));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
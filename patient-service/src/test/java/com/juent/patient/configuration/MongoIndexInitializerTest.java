@@ -0,0 +1,135 @@
+package com.juent.patient.configuration;
+
+import com.juent.patient.model.Patient;
+import org.junit.jupiter.api.*;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class MongoIndexInitializerTest {
+
+    private AutoCloseable mock;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private IndexOperations indexOperations;
+
+    private MongoMappingContext mappingContext;
+
+    private MongoIndexInitializer mongoIndexInitializer;
+
+    @BeforeEach
+    public void init() {
+        mock = MockitoAnnotations.openMocks(this);
+
+        mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        when(mongoTemplate.getConverter()).thenReturn(new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext));
+        when(mongoTemplate.indexOps(Patient.class)).thenReturn(indexOperations);
+        when(mongoTemplate.getCollectionName(Patient.class)).thenReturn("patients");
+        mongoIndexInitializer = new MongoIndexInitializer(mongoTemplate);
+    }
+
+    @AfterEach
+    public void close() throws Exception {
+        if (mock != null) {
+            mock.close();
+        }
+    }
+
+    @Test
+    public void ensureIndexes_shouldCreateNameAndBirthDateIndex_whenMissing() {
+        when(indexOperations.getIndexInfo()).thenReturn(List.of(index("_id_", "_id")));
+
+        MongoIndexInitializer.IndexReport report = mongoIndexInitializer.ensureIndexes(Patient.class);
+
+        assertEquals("patients", report.collection());
+        assertEquals(List.of("{\"lastName\": 1, \"firstName\": 1, \"birthDate\": 1}"), report.missing());
+        assertTrue(report.extra().isEmpty());
+        verify(indexOperations, times(1)).ensureIndex(any(IndexDefinition.class));
+    }
+
+    @Test
+    public void ensureIndexes_shouldMatchExistingIndexOnKeysWhateverItsName() {
+        when(indexOperations.getIndexInfo()).thenReturn(List.of(index("_id_", "_id"), index("by_name", "lastName", "firstName", "birthDate")));
+
+        MongoIndexInitializer.IndexReport report = mongoIndexInitializer.ensureIndexes(Patient.class);
+
+        assertTrue(report.missing().isEmpty());
+        assertTrue(report.extra().isEmpty());
+        verify(indexOperations, never()).ensureIndex(any(IndexDefinition.class));
+    }
+
+    @Test
+    public void ensureIndexes_shouldCreateIndex_whenExistingOneHasKeysInAnotherOrder() {
+        when(indexOperations.getIndexInfo()).thenReturn(List.of(index("_id_", "_id"), index("by_name", "firstName", "lastName", "birthDate")));
+
+        MongoIndexInitializer.IndexReport report = mongoIndexInitializer.ensureIndexes(Patient.class);
+
+        assertEquals(1, report.missing().size());
+        assertEquals(List.of("by_name"), report.extra());
+        verify(indexOperations, times(1)).ensureIndex(any(IndexDefinition.class));
+    }
+
+    @Test
+    public void ensureIndexes_shouldReportUndeclaredIndexesWithoutDroppingThem() {
+        when(indexOperations.getIndexInfo()).thenReturn(List.of(index("_id_", "_id"), index("lastName_1_firstName_1_birthDate_1", "lastName", "firstName", "birthDate"), index("phone_1", "phone")));
+
+        MongoIndexInitializer.IndexReport report = mongoIndexInitializer.ensureIndexes(Patient.class);
+
+        assertEquals(List.of("phone_1"), report.extra());
+        verify(indexOperations, never()).dropIndex(anyString());
+    }
+
+    @Test
+    public void ensureIndexes_shouldCoverEveryDocumentInMappingContext() {
+        when(indexOperations.getIndexInfo()).thenReturn(List.of(index("_id_", "_id")));
+        mappingContext.getPersistentEntity(Patient.class);
+
+        mongoIndexInitializer.ensureIndexes();
+
+        verify(mongoTemplate, times(1)).indexOps(Patient.class);
+        verify(indexOperations, times(1)).ensureIndex(any(IndexDefinition.class));
+    }
+
+    @Test
+    public void ensureIndexes_shouldStop_whenMongoIsUnreachable() {
+        when(mongoTemplate.indexOps(any(Class.class))).thenReturn(indexOperations);
+        when(indexOperations.getIndexInfo()).thenThrow(new DataAccessResourceFailureException("Timed out"));
+        mappingContext.getPersistentEntity(Patient.class);
+        mappingContext.getPersistentEntity(Other.class);
+
+        mongoIndexInitializer.ensureIndexes();
+
+        verify(mongoTemplate, times(1)).indexOps(any(Class.class));
+    }
+
+    private static IndexInfo index(String name, String... keys) {
+        List<IndexField> fields = Arrays.stream(keys).map(key -> IndexField.create(key, Sort.Direction.ASC)).toList();
+        return new IndexInfo(fields, name, false, false, "");
+    }
+
+    @org.springframework.data.mongodb.core.mapping.Document("others")
+    private static class Other {
+        private String id;
+    }
+}
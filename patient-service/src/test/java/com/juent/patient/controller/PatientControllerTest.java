@@ -1,23 +1,53 @@
 package com.juent.patient.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.juent.patient.DTO.PatientBulkResultDTO;
 import com.juent.patient.DTO.PatientDTO;
+import com.juent.patient.DTO.PatientPageDTO;
+import com.juent.patient.configuration.SmileConfig;
+import com.juent.patient.csv.PatientCsv;
 import com.juent.patient.enums.GenderEnum;
 import com.juent.patient.exception.PatientNotFoundException;
 import com.juent.patient.model.Patient;
+import com.juent.patient.service.PatientBulkService;
 import com.juent.patient.service.PatientService;
 import org.junit.jupiter.api.*;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.Month;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.http.HttpStatus.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 public class PatientControllerTest {
 
@@ -29,6 +59,9 @@ public class PatientControllerTest {
     @Mock
     private PatientService patientService;
 
+    @Mock
+    private PatientBulkService patientBulkService;
+
     private PatientDTO patientDTO;
     private Patient patient;
 
@@ -70,6 +103,135 @@ public class PatientControllerTest {
         verify(patientService, times(1)).findAllPatients();
     }
 
+    @Test
+    public void getPatientsByIds_shouldReturnRequestedPatients() {
+        when(patientService.findPatientsByIds(List.of("12345"))).thenReturn(List.of(patient));
+
+        ResponseEntity<List<Patient>> response = patientController.getPatientsByIds(List.of("12345"));
+
+        assertEquals(OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals("12345", response.getBody().getFirst().getId());
+        verify(patientService, times(1)).findPatientsByIds(List.of("12345"));
+    }
+
+    @Test
+    public void getPatientsByIds_shouldAnswerSmile_onlyWhenAccepted() throws Exception {
+        when(patientService.findPatientsByIds(List.of("12345"))).thenReturn(List.of(patient));
+        ObjectMapper jsonMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(patientController)
+                .setMessageConverters(new MappingJackson2HttpMessageConverter(jsonMapper),
+                        new SmileConfig().smileHttpMessageConverter(Jackson2ObjectMapperBuilder.json()
+                                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)))
+                .build();
+
+        byte[] smile = mockMvc.perform(post("/api/patient/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"12345\"]")
+                        .accept(SmileConfig.APPLICATION_SMILE, MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(SmileConfig.APPLICATION_SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+        JsonNode patients = new ObjectMapper(new SmileFactory()).readTree(smile);
+        assertEquals("12345", patients.get(0).get("id").asText());
+        assertEquals("1990-01-01", patients.get(0).get("birthDate").asText());
+
+        mockMvc.perform(post("/api/patient/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"12345\"]")
+                        .accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    public void getPatientsPage_shouldReturnPageAndNextCursor() {
+        PatientPageDTO page = new PatientPageDTO(List.of(patient), "12345");
+        when(patientService.findPatientsPage(null, 1)).thenReturn(page);
+
+        ResponseEntity<PatientPageDTO> response = patientController.getPatientsPage(null, 1);
+
+        assertEquals(OK, response.getStatusCode());
+        assertEquals(page, response.getBody());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void streamPatients_shouldWriteOnePatientPerLine() throws IOException {
+        doAnswer(invocation -> {
+            Consumer<Patient> action = invocation.getArgument(0);
+            action.accept(patient);
+            action.accept(patient);
+            return null;
+        }).when(patientService).forEachPatient(any(Consumer.class));
+
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        ResponseEntity<StreamingResponseBody> response = new PatientController(patientService, patientBulkService, objectMapper).streamPatients();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertNotNull(response.getBody());
+        response.getBody().writeTo(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("12345", objectMapper.readTree(lines[0]).get("id").asText());
+        assertEquals("1990-01-01", objectMapper.readTree(lines[1]).get("birthDate").asText());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void exportPatientsCsv_shouldWriteHeaderThenOnePatientPerRow() throws IOException {
+        doAnswer(invocation -> {
+            Consumer<Patient> action = invocation.getArgument(0);
+            action.accept(patient);
+            return null;
+        }).when(patientService).forEachPatient(any(Consumer.class));
+
+        ResponseEntity<StreamingResponseBody> response = patientController.exportPatientsCsv();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertNotNull(response.getBody());
+        response.getBody().writeTo(out);
+
+        assertEquals("text/csv;charset=UTF-8", String.valueOf(response.getHeaders().getContentType()));
+        assertEquals(PatientCsv.HEADER + "\nJohn,Doe,1990-01-01,MALE,123 Main Street,123456789\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void importPatientsCsv_shouldHandRowsToBulkService() throws IOException {
+        List<String> read = new ArrayList<>();
+        when(patientBulkService.insertPatients(any())).thenAnswer(invocation -> {
+            Iterator<PatientDTO> patients = invocation.getArgument(0);
+            patients.forEachRemaining(row -> read.add(row.getFirstName()));
+            return new PatientBulkResultDTO(read.size(), 0, 0, List.of());
+        });
+
+        ResponseEntity<PatientBulkResultDTO> response = patientController.importPatientsCsv(
+                body(PatientCsv.HEADER + "\nJohn,Doe,1990-01-01,MALE,,\nJane,Doe,1991-01-01,FEMALE,,\n"));
+
+        assertEquals(OK, response.getStatusCode());
+        assertEquals(List.of("John", "Jane"), read);
+    }
+
+    @Test
+    public void importPatients_shouldReadJsonArrayAndNdjsonAlike() throws IOException {
+        List<String> read = new ArrayList<>();
+        when(patientBulkService.insertPatients(any())).thenAnswer(invocation -> {
+            Iterator<PatientDTO> patients = invocation.getArgument(0);
+            patients.forEachRemaining(row -> read.add(row.getFirstName()));
+            return new PatientBulkResultDTO(read.size(), 0, 0, List.of());
+        });
+        PatientController controller = new PatientController(patientService, patientBulkService, new ObjectMapper());
+
+        controller.importPatients(body("[{\"firstName\":\"A\"},{\"firstName\":\"B\"}]"));
+        controller.importPatients(body("{\"firstName\":\"C\"}\n{\"firstName\":\"D\",\"gender\":\"MALE\"}\n"));
+
+        assertEquals(List.of("A", "B", "C", "D"), read);
+    }
+
     @Test
     public void getPatientById_shouldReturnPatient() {
         when(patientService.findPatientById("1")).thenReturn(patientDTO);
@@ -82,6 +244,57 @@ public class PatientControllerTest {
         verify(patientService, times(1)).findPatientById("1");
     }
 
+    @Test
+    public void getPatientById_shouldAnswerNotModified_whenETagMatches() throws Exception {
+        when(patientService.findPatientById("1")).thenReturn(patientDTO);
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(patientController).build();
+
+        String eTag = mockMvc.perform(get("/api/patient/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/patient/1").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().string(""));
+
+        patientDTO.setPhone("987654321");
+        mockMvc.perform(get("/api/patient/1").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void getPatientById_shouldSendWeakETagAndVaryByAccept_forJsonAndSmile() throws Exception {
+        when(patientService.findPatientById("1")).thenReturn(patientDTO);
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(patientController)
+                .setMessageConverters(new MappingJackson2HttpMessageConverter(),
+                        new SmileConfig().smileHttpMessageConverter(Jackson2ObjectMapperBuilder.json()))
+                .addInterceptors(new SmileConfig.VaryByAcceptInterceptor())
+                .build();
+
+        String eTag = mockMvc.perform(get("/api/patient/1").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(eTag);
+        assertTrue(eTag.startsWith("W/\""), eTag);
+
+        mockMvc.perform(get("/api/patient/1").accept(SmileConfig.APPLICATION_SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(SmileConfig.APPLICATION_SMILE))
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+
+        mockMvc.perform(get("/api/patient/1").accept(SmileConfig.APPLICATION_SMILE).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+
+        mockMvc.perform(delete("/api/patient/delete/1"))
+                .andExpect(status().isNoContent())
+                .andExpect(header().doesNotExist(HttpHeaders.VARY));
+    }
+
     @Test
     public void getPatientById_shouldThrowNotFoundException() {
         when(patientService.findPatientById("99")).thenThrow(new PatientNotFoundException("99"));
@@ -155,4 +368,8 @@ public class PatientControllerTest {
         assertEquals("Patient with ID 99 not found.", exception.getMessage());
         verify(patientService, times(1)).deletePatient("99");
     }
+
+    private static InputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
 }
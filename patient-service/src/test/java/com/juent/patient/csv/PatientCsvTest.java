@@ -0,0 +1,134 @@
+package com.juent.patient.csv;
+
+import com.juent.patient.DTO.PatientDTO;
+import com.juent.patient.enums.GenderEnum;
+import com.juent.patient.model.Patient;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PatientCsvTest {
+
+    @Test
+    public void write_thenRead_shouldRoundTripQuotedFields() throws IOException {
+        Patient patient = new Patient("1", "Jean", "D\"Arc", LocalDate.of(1990, 1, 31), GenderEnum.FEMALE,
+                "12 rue de la Paix, Paris", "0102030405");
+
+        String line = PatientCsv.write(patient);
+        Iterator<PatientDTO> read = PatientCsv.read(reader(PatientCsv.HEADER + "\n" + line + "\n"));
+
+        assertEquals("Jean,\"D\"\"Arc\",1990-01-31,FEMALE,\"12 rue de la Paix, Paris\",0102030405", line);
+        assertEquals(new PatientDTO("Jean", "D\"Arc", "1990-01-31", GenderEnum.FEMALE, "12 rue de la Paix, Paris", "0102030405"), read.next());
+        assertFalse(read.hasNext());
+    }
+
+    @Test
+    public void write_thenRead_shouldRoundTripMultiLineFields() throws IOException {
+        Patient patient = new Patient("1", "Jean", "Dupont", LocalDate.of(1990, 1, 31), GenderEnum.MALE,
+                "Bâtiment B\n12 rue de la Paix, \"Paris\"\n", "0102030405");
+        Patient next = new Patient("2", "Jane", "Doe", LocalDate.of(1970, 5, 4), GenderEnum.FEMALE, null, null);
+
+        Iterator<PatientDTO> read = PatientCsv.read(reader(
+                PatientCsv.HEADER + "\r\n" + PatientCsv.write(patient) + "\r\n" + PatientCsv.write(next) + "\r\n"));
+
+        assertEquals(new PatientDTO("Jean", "Dupont", "1990-01-31", GenderEnum.MALE,
+                "Bâtiment B\n12 rue de la Paix, \"Paris\"", "0102030405"), read.next());
+        assertEquals("Jane", read.next().getFirstName());
+        assertFalse(read.hasNext());
+    }
+
+    @Test
+    public void write_shouldEscapeFormulas_andReadShouldRestoreThem() throws IOException {
+        Patient patient = new Patient("1", "=HYPERLINK(\"http://x\")", "@SUM(A1)", LocalDate.of(1990, 1, 31),
+                GenderEnum.FEMALE, "'-2 rue Haute", "+33102030405");
+
+        String line = PatientCsv.write(patient);
+        Iterator<PatientDTO> read = PatientCsv.read(reader(PatientCsv.HEADER + "\n" + line + "\n"));
+
+        assertEquals("\"'=HYPERLINK(\"\"http://x\"\")\",'@SUM(A1),1990-01-31,FEMALE,''-2 rue Haute,'+33102030405", line);
+        assertEquals(new PatientDTO("=HYPERLINK(\"http://x\")", "@SUM(A1)", "1990-01-31", GenderEnum.FEMALE,
+                "'-2 rue Haute", "+33102030405"), read.next());
+        assertFalse(read.hasNext());
+    }
+
+    @Test
+    public void read_shouldKeepApostrophesThatDoNotEscapeAFormula() throws IOException {
+        Iterator<PatientDTO> read = PatientCsv.read(reader(PatientCsv.HEADER + "\nJean,'t Hooft,1990-01-31,MALE,',\n"));
+
+        PatientDTO patient = read.next();
+        assertEquals("'t Hooft", patient.getLastName());
+        assertEquals("'", patient.getAddress());
+    }
+
+    @Test
+    public void next_shouldNumberRowsByTheirFirstLine_afterMultiLineFields() throws IOException {
+        Iterator<PatientDTO> read = PatientCsv.read(reader(PatientCsv.HEADER + """
+
+                John,Doe,1966-12-31,MALE,"1 rue Basse
+                Paris",
+                Jane,Doe,1970-05-04,UNKNOWN,,
+                Jim,Doe,1970-05-04,MALE,"unterminated,
+                """));
+
+        assertEquals("1 rue Basse\nParis", read.next().getAddress());
+        IllegalArgumentException badGender = assertThrows(IllegalArgumentException.class, read::next);
+        assertTrue(badGender.getMessage().startsWith("Line 4:"), badGender.getMessage());
+        IllegalArgumentException unterminated = assertThrows(IllegalArgumentException.class, read::next);
+        assertTrue(unterminated.getMessage().startsWith("Line 5: unterminated"), unterminated.getMessage());
+        assertFalse(read.hasNext());
+    }
+
+    @Test
+    public void read_shouldMapColumnsByHeaderNameAndSkipBlankLines() throws IOException {
+        Iterator<PatientDTO> read = PatientCsv.read(reader("""
+                phone,gender,birthDate,lastName,firstName,address
+                555,male,1966-12-31,Doe,John,
+
+                """));
+
+        PatientDTO patient = read.next();
+        assertEquals("John", patient.getFirstName());
+        assertEquals("Doe", patient.getLastName());
+        assertEquals(GenderEnum.MALE, patient.getGender());
+        assertNull(patient.getAddress());
+        assertEquals("555", patient.getPhone());
+        assertFalse(read.hasNext());
+    }
+
+    @Test
+    public void read_shouldRejectHeaderMissingAColumn() {
+        assertThrows(IllegalArgumentException.class, () -> PatientCsv.read(reader("firstName,lastName\n")));
+    }
+
+    @Test
+    public void next_shouldReportBadRowAndGoOnWithTheNextOne() throws IOException {
+        Iterator<PatientDTO> read = PatientCsv.read(reader(PatientCsv.HEADER + """
+
+                John,Doe,1966-12-31
+                John,Doe,1966-12-31,UNKNOWN,,
+                Jane,Doe,1970-05-04,FEMALE,,
+                """));
+
+        IllegalArgumentException wrongFieldCount = assertThrows(IllegalArgumentException.class, read::next);
+        assertTrue(wrongFieldCount.getMessage().startsWith("Line 2:"), wrongFieldCount.getMessage());
+        assertThrows(IllegalArgumentException.class, read::next);
+        assertEquals("Jane", read.next().getFirstName());
+        assertFalse(read.hasNext());
+    }
+
+    @Test
+    public void read_shouldReturnNothing_forEmptyInput() throws IOException {
+        assertFalse(PatientCsv.read(reader("")).hasNext());
+    }
+
+    private static BufferedReader reader(String content) {
+        return new BufferedReader(new StringReader(content));
+    }
+}
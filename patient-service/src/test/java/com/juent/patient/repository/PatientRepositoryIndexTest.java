@@ -0,0 +1,116 @@
+package com.juent.patient.repository;
+
+import com.juent.patient.configuration.MongoIndexInitializer;
+import com.juent.patient.enums.GenderEnum;
+import com.juent.patient.model.Patient;
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.bson.Document;
+import org.junit.jupiter.api.*;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs patient lookups by name and birth date against a throwaway MongoDB started with Testcontainers, or, without
+ * Docker, against the server given by MONGODB_HOST / MONGODB_PORT, and checks the winning plan. Skipped when
+ * neither is available.
+ */
+public class PatientRepositoryIndexTest {
+
+    private static final String DATABASE = "patient_index_test";
+
+    private static MongoDBContainer container;
+    private static String connectionString;
+
+    private MongoClient mongoClient;
+    private MongoTemplate mongoTemplate;
+
+    @BeforeAll
+    public static void startMongo() {
+        if (DockerClientFactory.instance().isDockerAvailable()) {
+            container = new MongoDBContainer(DockerImageName.parse("mongo:7.0"));
+            container.start();
+            connectionString = container.getConnectionString();
+        } else {
+            connectionString = "mongodb://" + System.getenv().getOrDefault("MONGODB_HOST", "localhost")
+                    + ":" + System.getenv().getOrDefault("MONGODB_PORT", "27017");
+        }
+    }
+
+    @AfterAll
+    public static void stopMongo() {
+        if (container != null) {
+            container.stop();
+        }
+    }
+
+    @BeforeEach
+    public void init() {
+        mongoClient = MongoClients.create(MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(connectionString))
+                .applyToClusterSettings(cluster -> cluster.serverSelectionTimeout(2, TimeUnit.SECONDS))
+                .build());
+        mongoTemplate = new MongoTemplate(mongoClient, DATABASE);
+        assumeTrue(isReachable(), "No Docker and no MongoDB server at " + connectionString);
+    }
+
+    @AfterEach
+    public void close() {
+        if (mongoClient != null) {
+            if (isReachable()) {
+                mongoClient.getDatabase(DATABASE).drop();
+            }
+            mongoClient.close();
+        }
+    }
+
+    @Test
+    public void findByLastNameAndFirstName_shouldUseIndexScan() {
+        new MongoIndexInitializer(mongoTemplate).ensureIndexes(Patient.class);
+        for (int i = 0; i < 100; i++) {
+            mongoTemplate.insert(new Patient(null, "First" + i, "Last" + i % 10, LocalDate.of(1950 + i, 1, 1),
+                    GenderEnum.FEMALE, "1 Main Street", "000-000-0000"));
+        }
+
+        assertIndexScan(new Document("lastName", "Last3"));
+        assertIndexScan(new Document("lastName", "Last3").append("firstName", "First13"));
+    }
+
+    @Test
+    public void ensureIndexes_shouldReportNothingMissing_onSecondRun() {
+        new MongoIndexInitializer(mongoTemplate).ensureIndexes(Patient.class);
+
+        MongoIndexInitializer.IndexReport report = new MongoIndexInitializer(mongoTemplate).ensureIndexes(Patient.class);
+
+        assertEquals(List.of(), report.missing());
+        assertEquals(List.of(), report.extra());
+    }
+
+    private void assertIndexScan(Document filter) {
+        Document explain = mongoTemplate.getCollection("patients").find(filter).explain();
+        String winningPlan = explain.get("queryPlanner", Document.class).get("winningPlan", Document.class).toJson();
+
+        assertTrue(winningPlan.contains("IXSCAN"), winningPlan);
+        assertFalse(winningPlan.contains("COLLSCAN"), winningPlan);
+    }
+
+    private boolean isReachable() {
+        try {
+            mongoClient.getDatabase("admin").runCommand(new Document("ping", 1));
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+}
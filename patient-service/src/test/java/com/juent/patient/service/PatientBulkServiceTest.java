@@ -0,0 +1,162 @@
+package com.juent.patient.service;
+
+import com.juent.patient.DTO.PatientBulkResultDTO;
+import com.juent.patient.DTO.PatientDTO;
+import com.juent.patient.enums.BulkItemStatusEnum;
+import com.juent.patient.enums.GenderEnum;
+import com.juent.patient.model.Patient;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.*;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class PatientBulkServiceTest {
+
+    private AutoCloseable mock;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    private PatientBulkService patientBulkService;
+
+    @BeforeEach
+    public void init() {
+        mock = MockitoAnnotations.openMocks(this);
+
+        when(mongoTemplate.bulkOps(BulkMode.UNORDERED, Patient.class)).thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
+        patientBulkService = new PatientBulkService(mongoTemplate, 2);
+    }
+
+    @AfterEach
+    public void close() throws Exception {
+        if (mock != null) {
+            mock.close();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void insertPatients_shouldWriteUnorderedBatchesWithAssignedIds() {
+        List<List<Patient>> inserted = new ArrayList<>();
+        when(bulkOperations.insert(anyList())).thenAnswer(invocation -> {
+            inserted.add(List.copyOf((List<Patient>) invocation.getArgument(0)));
+            return bulkOperations;
+        });
+        List<PatientDTO> patients = IntStream.range(0, 5)
+                .mapToObj(i -> patient(LocalDate.of(1980, 1, 1).plusDays(i).toString()))
+                .toList();
+
+        PatientBulkResultDTO result = patientBulkService.insertPatients(patients.iterator());
+
+        assertEquals(5, result.getCreated());
+        assertEquals(List.of(0, 1, 2, 3, 4), result.getItems().stream().map(item -> item.getIndex()).toList());
+        assertEquals(List.of(2, 2, 1), inserted.stream().map(List::size).toList());
+        verify(bulkOperations, times(3)).execute();
+        Patient first = inserted.getFirst().getFirst();
+        assertEquals(result.getItems().getFirst().getId(), first.getId());
+        assertEquals(LocalDate.of(1980, 1, 1), first.getBirthDate());
+    }
+
+    @Test
+    public void insertPatients_shouldRejectInvalidPatientsAndKeepGoing() {
+        List<PatientDTO> patients = List.of(
+                patient("1980-01-01"),
+                new PatientDTO("John", null, "1980-01-01", GenderEnum.MALE, null, null),
+                patient("1980-02-30"),
+                patient("1980-01-02"));
+
+        PatientBulkResultDTO result = patientBulkService.insertPatients(patients.iterator());
+
+        assertEquals(2, result.getCreated());
+        assertEquals(2, result.getRejected());
+        assertEquals("Missing required fields", result.getItems().get(1).getError());
+        assertEquals("Invalid birthDate 1980-02-30", result.getItems().get(2).getError());
+        verify(bulkOperations, times(1)).execute();
+    }
+
+    @Test
+    public void insertPatients_shouldRejectUnreadableRowsAndKeepGoing() {
+        Iterator<PatientDTO> rows = rows(patient("1980-01-01"),
+                new IllegalArgumentException("Line 3: unterminated quoted field"),
+                patient("1980-01-01"));
+
+        PatientBulkResultDTO result = patientBulkService.insertPatients(rows);
+
+        assertEquals(2, result.getCreated());
+        assertEquals(BulkItemStatusEnum.REJECTED, result.getItems().get(1).getStatus());
+        assertEquals("Line 3: unterminated quoted field", result.getItems().get(1).getError());
+    }
+
+    @Test
+    public void insertPatients_shouldStopOnReadFailureAfterWritingWhatWasRead() {
+        Iterator<PatientDTO> rows = rows(patient("1980-01-01"),
+                new UncheckedIOException(new IOException("connection reset")),
+                patient("1980-01-01"));
+
+        PatientBulkResultDTO result = patientBulkService.insertPatients(rows);
+
+        assertEquals(1, result.getCreated());
+        assertEquals(1, result.getRejected());
+        verify(bulkOperations, times(1)).execute();
+    }
+
+    @Test
+    public void insertPatients_shouldReportPatientsMongoRefused() {
+        BulkOperationException refused = mock(BulkOperationException.class);
+        when(refused.getErrors()).thenReturn(List.of(new BulkWriteError(11000, "duplicate key", new BsonDocument(), 0)));
+        when(bulkOperations.execute()).thenThrow(refused);
+
+        PatientBulkResultDTO result = patientBulkService.insertPatients(List.of(patient("1980-01-01")).iterator());
+
+        assertEquals(0, result.getCreated());
+        assertEquals(1, result.getFailed());
+        assertEquals("duplicate key", result.getItems().getFirst().getError());
+    }
+
+    private static PatientDTO patient(String birthDate) {
+        return new PatientDTO("John", "Doe", birthDate, GenderEnum.MALE, "1 Main Street", "555");
+    }
+
+    /**
+     * Iterator returning the patients and throwing the exceptions, in order.
+     */
+    private static Iterator<PatientDTO> rows(Object... rows) {
+        Iterator<Object> iterator = List.of(rows).iterator();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public PatientDTO next() {
+                Object row = iterator.next();
+                if (row instanceof RuntimeException e) {
+                    throw e;
+                }
+                return (PatientDTO) row;
+            }
+        };
+    }
+}
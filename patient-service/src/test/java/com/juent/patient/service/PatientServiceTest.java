@@ -1,18 +1,28 @@
 package com.juent.patient.service;
 
 import com.juent.patient.DTO.PatientDTO;
+import com.juent.patient.DTO.PatientPageDTO;
+import com.juent.patient.cache.PatientCache;
 import com.juent.patient.enums.GenderEnum;
+import com.juent.patient.event.PatientChangedEvent;
 import com.juent.patient.exception.PatientNotFoundException;
 import com.juent.patient.model.Patient;
 import com.juent.patient.repository.PatientRepository;
 import org.junit.jupiter.api.*;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
 
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -21,18 +31,27 @@ class PatientServiceTest {
 
     private AutoCloseable mock;
 
-    @InjectMocks
     private PatientService patientService;
 
     @Mock
     private PatientRepository patientRepository;
 
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private PatientCache patientCache = new PatientCache(100, Duration.ofMinutes(10));
+
     private Patient patient;
     private PatientDTO patientDTO;
 
     @BeforeEach
     void setUp() {
         mock = MockitoAnnotations.openMocks(this);
+        patientService = new PatientService(patientRepository, mongoTemplate, eventPublisher, patientCache, 2);
 
         patient = new Patient("1", "John", "Doe", LocalDate.of(1990, 1, 1), GenderEnum.MALE, "123 Main Street", "123456789");
         patientDTO = new PatientDTO(patient);
@@ -68,6 +87,70 @@ class PatientServiceTest {
         verify(patientRepository, times(1)).findAll();
     }
 
+    @Test
+    void findPatientsByIds_shouldReturnPatientsInOneQuery() {
+        when(patientRepository.findAllById(List.of("1", "2"))).thenReturn(List.of(patient));
+
+        List<Patient> patients = patientService.findPatientsByIds(List.of("1", "2"));
+
+        assertEquals(1, patients.size());
+        assertEquals("1", patients.getFirst().getId());
+        verify(patientRepository, times(1)).findAllById(List.of("1", "2"));
+    }
+
+    @Test
+    void findPatientsByIds_shouldRejectBatchAboveMaxSize() {
+        assertThrows(IllegalArgumentException.class, () -> patientService.findPatientsByIds(List.of("1", "2", "3")));
+        verifyNoInteractions(patientRepository);
+    }
+
+    @Test
+    void constructor_shouldRejectNonPositiveMaxBatchSize() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new PatientService(patientRepository, mongoTemplate, eventPublisher, patientCache, 0));
+    }
+
+    @Test
+    void findPatientsPage_shouldReturnNextCursor_whenMorePatientsFollow() {
+        Patient second = new Patient("65f1c0a2b3c4d5e6f7a8b9c2", "Jane", "Doe", LocalDate.of(1985, 5, 5), GenderEnum.FEMALE, null, null);
+        Patient third = new Patient("65f1c0a2b3c4d5e6f7a8b9c3", "Jim", "Doe", LocalDate.of(1970, 7, 7), GenderEnum.MALE, null, null);
+        when(patientRepository.findByIdGreaterThanOrderByIdAsc("65f1c0a2b3c4d5e6f7a8b9c1", Limit.of(2)))
+                .thenReturn(List.of(second, third));
+
+        PatientPageDTO page = patientService.findPatientsPage("65f1c0a2b3c4d5e6f7a8b9c1", 1);
+
+        assertEquals(List.of(second), page.getPatients());
+        assertEquals("65f1c0a2b3c4d5e6f7a8b9c2", page.getNextCursor());
+    }
+
+    @Test
+    void findPatientsPage_shouldReturnNoCursor_onLastPage() {
+        when(patientRepository.findAllByOrderByIdAsc(Limit.of(11))).thenReturn(List.of(patient));
+
+        PatientPageDTO page = patientService.findPatientsPage(null, 10);
+
+        assertEquals(List.of(patient), page.getPatients());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void findPatientsPage_shouldRejectInvalidLimitOrCursor() {
+        assertThrows(IllegalArgumentException.class, () -> patientService.findPatientsPage(null, 0));
+        assertThrows(IllegalArgumentException.class, () -> patientService.findPatientsPage(null, PatientService.MAX_PAGE_SIZE + 1));
+        assertThrows(IllegalArgumentException.class, () -> patientService.findPatientsPage("not-an-id", 10));
+        verifyNoInteractions(patientRepository);
+    }
+
+    @Test
+    void forEachPatient_shouldHandEveryPatientReadFromCursor() {
+        when(mongoTemplate.stream(any(Query.class), eq(Patient.class))).thenReturn(Stream.of(patient, patient));
+        List<Patient> seen = new ArrayList<>();
+
+        patientService.forEachPatient(seen::add);
+
+        assertEquals(2, seen.size());
+    }
+
     @Test
     void findPatientById_shouldReturnPatient() {
         when(patientRepository.findById("1")).thenReturn(Optional.of(patient));
@@ -91,6 +174,32 @@ class PatientServiceTest {
         verify(patientRepository, times(1)).findById("99");
     }
 
+    @Test
+    void findPatientById_shouldReadRepositoryOnce_untilPatientIsUpdated() {
+        when(patientRepository.findById("1")).thenReturn(Optional.of(patient));
+        when(patientRepository.save(any(Patient.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        patientService.findPatientById("1");
+        patientService.findPatientById("1");
+        verify(patientRepository, times(1)).findById("1");
+
+        PatientDTO updateDTO = new PatientDTO();
+        updateDTO.setPhone("987654321");
+        patientService.updatePatient(updateDTO, "1");
+
+        assertEquals("987654321", patientService.findPatientById("1").getPhone());
+        verify(patientCache, times(1)).evict("1");
+    }
+
+    @Test
+    void findPatientById_shouldNotCacheMissingPatient() {
+        when(patientRepository.findById("99")).thenReturn(Optional.empty(), Optional.of(patient));
+
+        assertThrows(PatientNotFoundException.class, () -> patientService.findPatientById("99"));
+
+        assertEquals("John", patientService.findPatientById("99").getFirstName());
+    }
+
     @Test
     void savePatient_shouldReturnSavedPatient() {
         when(patientRepository.save(any(Patient.class))).thenReturn(patient);
@@ -127,6 +236,7 @@ class PatientServiceTest {
         assertNotNull(updatedPatient);
         verify(patientRepository, times(1)).findById("1");
         verify(patientRepository, times(1)).save(any(Patient.class));
+        verify(eventPublisher, times(1)).publishEvent(new PatientChangedEvent("1"));
     }
 
     @Test
@@ -171,6 +281,7 @@ class PatientServiceTest {
         assertEquals("Patient with id 99 not found.", exception.getMessage());
         verify(patientRepository, times(1)).findById("99");
         verify(patientRepository, times(0)).save(any(Patient.class));
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
@@ -182,6 +293,8 @@ class PatientServiceTest {
 
         verify(patientRepository, times(1)).existsById("1");
         verify(patientRepository, times(1)).deleteById("1");
+        verify(patientCache, times(1)).evict("1");
+        verify(eventPublisher, times(1)).publishEvent(new PatientChangedEvent("1"));
     }
 
     @Test
@@ -195,5 +308,6 @@ class PatientServiceTest {
         assertEquals("Patient with id 99 not found.", exception.getMessage());
         verify(patientRepository, times(1)).existsById("99");
         verify(patientRepository, times(0)).deleteById(anyString());
+        verifyNoInteractions(eventPublisher);
     }
 }